@@ -0,0 +1,120 @@
+package benchmarks;
+
+import com.bulenkov.darcula.DarculaLaf;
+
+import javax.swing.*;
+import javax.swing.plaf.metal.MetalLookAndFeel;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+/**
+ * Reports the heap retained per component with Darcula installed, including
+ * its UI delegate, border and child components, for the component types that
+ * are most numerous on large screens.  Each type is measured by creating a
+ * few thousand instances and comparing the used heap after a full GC.  Run
+ * with {@code -XX:+UseSerialGC} for stable numbers; the optional argument
+ * selects component types by name, e.g. {@code JComboBox}, which gives the
+ * most precise numbers when one type is measured per run.
+ */
+public class FootprintReport {
+    private static final int COUNT = 5000;
+
+    private static String ourInclude = ".*";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0) {
+            ourInclude = args[0];
+        }
+        UIManager.setLookAndFeel(new MetalLookAndFeel());
+        UIManager.setLookAndFeel(new DarculaLaf());
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                report("JPanel", new Factory() {
+                    public JComponent create() {
+                        return new JPanel();
+                    }
+                });
+                report("JLabel", new Factory() {
+                    public JComponent create() {
+                        return new JLabel("Label");
+                    }
+                });
+                report("JButton", new Factory() {
+                    public JComponent create() {
+                        return new JButton("Button");
+                    }
+                });
+                report("JToggleButton", new Factory() {
+                    public JComponent create() {
+                        return new JToggleButton("Toggle");
+                    }
+                });
+                report("JCheckBox", new Factory() {
+                    public JComponent create() {
+                        return new JCheckBox("Check");
+                    }
+                });
+                report("JRadioButton", new Factory() {
+                    public JComponent create() {
+                        return new JRadioButton("Radio");
+                    }
+                });
+                report("JComboBox", new Factory() {
+                    public JComponent create() {
+                        return new JComboBox(new String[]{"One", "Two"});
+                    }
+                });
+                report("JProgressBar", new Factory() {
+                    public JComponent create() {
+                        return new JProgressBar();
+                    }
+                });
+                report("JSpinner", new Factory() {
+                    public JComponent create() {
+                        return new JSpinner();
+                    }
+                });
+                report("JTextField", new Factory() {
+                    public JComponent create() {
+                        return new JTextField("Text");
+                    }
+                });
+            }
+        });
+        System.exit(0);
+    }
+
+    private interface Factory {
+        JComponent create();
+    }
+
+    private static void report(String name, Factory factory) {
+        if (!name.matches(ourInclude)) {
+            return;
+        }
+        // Warm up, so class loading, shared defaults and startup garbage are not counted
+        for (int i = 0; i < COUNT / 10; i++) {
+            factory.create();
+        }
+        usedHeap();
+        final JComponent[] components = new JComponent[COUNT];
+        final long before = usedHeap();
+        for (int i = 0; i < COUNT; i++) {
+            components[i] = factory.create();
+        }
+        final long after = usedHeap();
+        System.out.println(String.format("%-14s %8d bytes retained per component", name, (after - before) / COUNT));
+        if (components[COUNT - 1] == null) {
+            throw new AssertionError();
+        }
+    }
+
+    private static long usedHeap() {
+        final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,35 @@
+package benchmarks;
+
+import com.bulenkov.darcula.DarculaLaf;
+
+import javax.swing.*;
+import javax.swing.plaf.metal.MetalLookAndFeel;
+
+/**
+ * Measures {@link DarculaLaf#getDefaults()} with the parsed theme snapshot and
+ * with {@code darcula.theme.noSnapshot}, which re-reads the property files on
+ * every call.
+ */
+public class GetDefaultsBenchmark {
+    private static final int WARMUP = 50;
+    private static final int ITERATIONS = 200;
+
+    public static void main(String[] args) throws Exception {
+        UIManager.setLookAndFeel(new MetalLookAndFeel());
+        measure("properties parsed per call", true);
+        measure("theme snapshot", false);
+    }
+
+    private static void measure(String name, boolean reparse) {
+        System.setProperty("darcula.theme.noSnapshot", String.valueOf(reparse));
+        for (int i = 0; i < WARMUP; i++) {
+            new DarculaLaf().getDefaults();
+        }
+        final long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            new DarculaLaf().getDefaults();
+        }
+        final long micros = (System.nanoTime() - start) / 1000 / ITERATIONS;
+        System.out.println(name + ": " + micros + " us per getDefaults()");
+    }
+}
@@ -0,0 +1,82 @@
+package benchmarks;
+
+import com.bulenkov.darcula.DarculaLaf;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures creating and painting HTML tool tips and labels with the full
+ * {@code darcula.css} and with the trimmed sheet selected by
+ * {@code darcula.css.fast}.  Swing links the kit style sheet into its label
+ * renderer only once, so every variant runs in a JVM of its own.
+ */
+public class HtmlRenderingBenchmark {
+    private static final int WARMUP = 500;
+    private static final int ITERATIONS = 2000;
+
+    private static final String TOOL_TIP = "<html><b>Rename</b> the selected element<br>"
+            + "Shortcut: <code>Shift+F6</code></html>";
+    private static final String LABEL = "<html><body><p>Found <b>3</b> usages in <a href='#'>Main.java</a>:</p>"
+            + "<ul><li><code>run()</code></li><li><i>field</i> initializer</li></ul></body></html>";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0) {
+            measure(args[0]);
+            return;
+        }
+        for (String fast : new String[]{"false", "true"}) {
+            final List<String> command = new ArrayList<String>();
+            command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+            command.add("-Djava.awt.headless=true");
+            command.add("-Ddarcula.css.fast=" + fast);
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(HtmlRenderingBenchmark.class.getName());
+            command.add("true".equals(fast) ? "darcula_fast.css" : "darcula.css");
+            final Process process = new ProcessBuilder(command).inheritIO().start();
+            process.waitFor();
+        }
+    }
+
+    private static void measure(String name) throws Exception {
+        final long installStart = System.nanoTime();
+        UIManager.setLookAndFeel(new DarculaLaf());
+        final long install = System.nanoTime() - installStart;
+
+        final long firstStart = System.nanoTime();
+        render();
+        final long first = System.nanoTime() - firstStart;
+
+        for (int i = 0; i < WARMUP; i++) {
+            render();
+        }
+        final long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            render();
+        }
+        final long micros = (System.nanoTime() - start) / 1000 / ITERATIONS;
+        System.out.println(name + ": install " + install / 1000000 + " ms, first render " + first / 1000000
+                + " ms, then " + micros + " us per tool tip and label");
+    }
+
+    private static void render() {
+        final BufferedImage image = new BufferedImage(400, 200, BufferedImage.TYPE_INT_ARGB);
+        final Graphics2D g = image.createGraphics();
+
+        final JToolTip toolTip = new JToolTip();
+        toolTip.setTipText(TOOL_TIP);
+        toolTip.setSize(toolTip.getPreferredSize());
+        toolTip.paint(g);
+
+        final JLabel label = new JLabel(LABEL);
+        label.setSize(label.getPreferredSize());
+        label.paint(g);
+
+        g.dispose();
+    }
+}
@@ -0,0 +1,70 @@
+package benchmarks;
+
+import javax.swing.*;
+import javax.swing.border.AbstractBorder;
+import javax.swing.border.Border;
+import java.awt.*;
+
+/**
+ * Checks that the Darcula borders of the {@link PaintBenchmark} cases answer
+ * {@code getBorderInsets(Component)} and, for {@code AbstractBorder}s, the
+ * fill-in {@code getBorderInsets(Component, Insets)} used by
+ * {@code JComponent.getInsets(Insets)} without allocating, as layout asks for
+ * them constantly.  Exits with status 1 if any Darcula border allocates.
+ */
+public class InsetsAllocationCheck {
+    private static final int CALLS = 10000;
+
+    public static void main(String[] args) throws Exception {
+        if (PaintBenchmark.getAllocatedBytes() < 0) {
+            System.out.println("This JVM doesn't report allocated bytes per thread");
+            System.exit(1);
+        }
+        PaintBenchmark.install();
+
+        final int[] failures = new int[1];
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                System.out.println(String.format("%-30s %-36s %10s %10s", "Case", "Border", "B/call", "B/fill"));
+                for (PaintBenchmark.Case c : PaintBenchmark.createCases()) {
+                    final JComponent component = PaintBenchmark.prepare(c, "normal");
+                    final Border border = c instanceof PaintBenchmark.BorderCase
+                                          ? ((PaintBenchmark.BorderCase)c).border : component.getBorder();
+                    if (border != null && !check(c.name, component, border)) {
+                        failures[0]++;
+                    }
+                }
+            }
+        });
+        System.out.println(failures[0] == 0 ? "No Darcula border allocates insets" : failures[0] + " border(s) allocate");
+        System.exit(failures[0] == 0 ? 0 : 1);
+    }
+
+    private static boolean check(String name, JComponent component, Border border) {
+        final long perCall = measure(component, border, null);
+        final long perFill = border instanceof AbstractBorder ? measure(component, border, new Insets(0, 0, 0, 0)) : -1;
+        final boolean darcula = border.getClass().getName().startsWith("com.bulenkov.darcula");
+        final boolean ok = !darcula || (perCall == 0 && perFill <= 0);
+        System.out.println(String.format("%-30s %-36s %10d %10s  %s", name, border.getClass().getSimpleName(), perCall,
+                perFill < 0 ? "n/a" : String.valueOf(perFill), ok ? "ok" : "FAILED"));
+        return ok;
+    }
+
+    private static long measure(Component component, Border border, Insets insets) {
+        // Warm up, so the JIT has compiled the calls before they are measured
+        for (int i = 0; i < CALLS; i++) {
+            getInsets(component, border, insets);
+        }
+        final long before = PaintBenchmark.getAllocatedBytes();
+        for (int i = 0; i < CALLS; i++) {
+            getInsets(component, border, insets);
+        }
+        return (PaintBenchmark.getAllocatedBytes() - before) / CALLS;
+    }
+
+    private static Insets getInsets(Component component, Border border, Insets insets) {
+        return insets == null ? border.getBorderInsets(component)
+                              : ((AbstractBorder)border).getBorderInsets(component, insets);
+    }
+}
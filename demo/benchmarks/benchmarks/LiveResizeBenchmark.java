@@ -0,0 +1,121 @@
+package benchmarks;
+
+import com.bulenkov.darcula.util.RenderingProfile;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * Measures repainting a large window's content at full quality and as it is
+ * painted during a live resize, where the delegates paint
+ * {@link RenderingProfile#isSimplified(Component) simplified}.  Each frame lays the
+ * content out at a new size, like a resize step does, and paints it; the
+ * report says whether a frame fits into a 60 Hz frame budget.
+ * <p>
+ * The optional arguments are the number of component rows and columns,
+ * 40 by 8 by default.
+ */
+public class LiveResizeBenchmark {
+    private static final long MEASURE_NANOS = 2000 * 1000000L;
+    private static final double FRAME_BUDGET_MS = 1000.0 / 60;
+
+    public static void main(final String[] args) throws Exception {
+        final int rows = args.length > 0 ? Integer.parseInt(args[0]) : 40;
+        final int columns = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        PaintBenchmark.install();
+
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                // Live resize is tracked per root pane
+                final JRootPane root = new JRootPane();
+                root.setContentPane(createContent(rows, columns));
+                final Dimension size = root.getPreferredSize();
+                System.out.println(String.format("Content of %d components, %dx%d", rows * columns, size.width,
+                        size.height));
+                // Warm up both modes, then measure them
+                measure(root, size, false);
+                measure(root, size, true);
+                report("full quality", measure(root, size, false));
+                report("live resize", measure(root, size, true));
+            }
+        });
+        System.exit(0);
+    }
+
+    private static void report(String name, double millis) {
+        System.out.println(String.format("%-14s %8.2f ms/frame %8.1f fps  %s", name, millis, 1000 / millis,
+                millis <= FRAME_BUDGET_MS ? "within 60 Hz" : "misses 60 Hz"));
+    }
+
+    private static JPanel createContent(int rows, int columns) {
+        final JPanel content = new JPanel(new GridLayout(rows, columns, 4, 4));
+        for (int i = 0; i < rows * columns; i++) {
+            switch (i % 8) {
+                case 0:
+                    content.add(new JButton("Button " + i));
+                    break;
+                case 1:
+                    content.add(new JCheckBox("Check " + i, i % 3 == 0));
+                    break;
+                case 2:
+                    content.add(new JComboBox(new String[]{"Item " + i}));
+                    break;
+                case 3:
+                    content.add(new JTextField("Text " + i));
+                    break;
+                case 4:
+                    content.add(new JSpinner());
+                    break;
+                case 5:
+                    content.add(new JSlider());
+                    break;
+                case 6:
+                    content.add(new JRadioButton("Radio " + i, i % 3 == 0));
+                    break;
+                default:
+                    final JProgressBar bar = new JProgressBar();
+                    bar.setValue(i % 100);
+                    content.add(bar);
+                    break;
+            }
+        }
+        return content;
+    }
+
+    private static double measure(JRootPane root, Dimension size, boolean liveResize) {
+        final BufferedImage image = new BufferedImage(size.width + 64, size.height + 64, BufferedImage.TYPE_INT_RGB);
+        if (liveResize) {
+            RenderingProfile.beginLiveResize(root);
+        }
+        try {
+            long frames = 0;
+            final long start = System.nanoTime();
+            long elapsed;
+            do {
+                final int grow = (int)(frames % 64);
+                root.setSize(size.width + grow, size.height + grow);
+                layout(root);
+                final Graphics2D g = image.createGraphics();
+                root.paint(g);
+                g.dispose();
+                frames++;
+            } while ((elapsed = System.nanoTime() - start) < MEASURE_NANOS);
+            return elapsed / 1e6 / frames;
+        } finally {
+            if (liveResize) {
+                RenderingProfile.endLiveResize(root);
+            }
+        }
+    }
+
+    private static void layout(Container c) {
+        c.doLayout();
+        for (Component child : c.getComponents()) {
+            if (child instanceof Container) {
+                layout((Container)child);
+            }
+        }
+    }
+}
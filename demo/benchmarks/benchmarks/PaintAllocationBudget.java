@@ -0,0 +1,146 @@
+package benchmarks;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Checks the bytes every Darcula UI delegate and border allocates per paint
+ * against a declared budget, using the cases of {@link PaintBenchmark}.  Each
+ * case is painted until the JIT has settled, then the allocation of a few
+ * batches of paints is measured in every state.  The lowest batch of a state
+ * counts, so a recompilation during one batch doesn't fail the check, and the
+ * worst state is compared to the budget.  Exits with status 1 if any case is
+ * over budget, so a build step can run it to catch allocation regressions;
+ * cases without a budget fail too.
+ * <p>
+ * The budgets are the worst steady state values of several runs at scale 1
+ * with about 15% headroom for JIT differences.  Lower a budget when a change
+ * removes allocations, so they don't creep back.  The optional argument
+ * selects cases by name, like for {@link PaintBenchmark}.
+ */
+public class PaintAllocationBudget {
+    private static final long WARMUP_NANOS = 300 * 1000000L;
+    private static final int PAINTS = 1000;
+    private static final int BATCHES = 3;
+    // Any allocation per paint costs at least one object header, so less than
+    // this over budget is a stray allocation within the batch, e.g. by the JIT
+    private static final long MIN_OBJECT_BYTES = 16;
+
+    private static final Map<String, Long> BUDGETS = new HashMap<String, Long>();
+
+    static {
+        budget("button", 1536);
+        budget("toggleButton", 1408);
+        budget("checkBox", 1280);
+        budget("radioButton", 1152);
+        budget("comboBox", 10624);
+        budget("comboBox.editable", 12416);
+        budget("textField", 3072);
+        budget("textField.search", 3584);
+        budget("passwordField", 4224);
+        budget("spinner", 25472);
+        budget("tree", 28032);
+        budget("table", 128256);
+        budget("scrollBar", 3456);
+        budget("progressBar", 2048);
+        budget("progressBar.indeterminate", 3584);
+        budget("slider", 9088);
+        budget("tabbedPane", 2816);
+        budget("menuBar", 5248);
+        budget("menu", 1920);
+        budget("menuItem", 1920);
+        budget("checkBoxMenuItem", 6016);
+        budget("radioButtonMenuItem", 3712);
+        budget("popupMenu", 12288);
+        budget("titlePane", 1536);
+        budget("internalFrame", 11264);
+        budget("toolBar", 3584);
+        budget("toolTip", 1536);
+        budget("splitPane", 3712);
+        budget("border.checkBox", 0);
+        budget("border.internal", 0);
+        budget("border.internalFrame", 0);
+        budget("border.menuBar", 0);
+        budget("border.menuItem", 0);
+        budget("border.popupMenu", 0);
+        budget("border.progressBar", 0);
+        budget("border.rootPane", 0);
+        budget("border.scrollPane", 1408);
+        budget("border.spinner", 8064);
+        budget("border.text", 1408);
+        budget("border.toolBarRollover", 512);
+        budget("border.toolTip", 512);
+        budget("border.tableHeader", 0);
+    }
+
+    private static void budget(String name, long bytesPerPaint) {
+        BUDGETS.put(name, bytesPerPaint);
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (PaintBenchmark.getAllocatedBytes() < 0) {
+            System.out.println("This JVM doesn't report allocated bytes per thread");
+            System.exit(1);
+        }
+        final String include = args.length > 0 ? args[0] : ".*";
+        PaintBenchmark.install();
+
+        final int[] failures = new int[1];
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                System.out.println(String.format("%-30s %10s %10s %-10s  %s", "Case", "B/paint", "budget", "state",
+                        "result"));
+                for (PaintBenchmark.Case c : PaintBenchmark.createCases()) {
+                    if (c.name.matches(include) && !check(c)) {
+                        failures[0]++;
+                    }
+                }
+            }
+        });
+        System.out.println(failures[0] == 0 ? "All cases within budget" : failures[0] + " case(s) over budget");
+        System.exit(failures[0] == 0 ? 0 : 1);
+    }
+
+    private static boolean check(PaintBenchmark.Case c) {
+        long worst = 0;
+        String worstState = null;
+        for (String state : PaintBenchmark.STATES) {
+            final long bytes = measure(c, state);
+            if (worstState == null || bytes > worst) {
+                worst = bytes;
+                worstState = state;
+            }
+        }
+        final Long budget = BUDGETS.get(c.name);
+        final boolean ok = budget != null && worst - budget < MIN_OBJECT_BYTES;
+        System.out.println(String.format("%-30s %10d %10s %-10s  %s", c.name, worst,
+                budget == null ? "none" : String.valueOf(budget), worstState, ok ? "ok" : "FAILED"));
+        return ok;
+    }
+
+    private static long measure(PaintBenchmark.Case c, String state) {
+        final JComponent component = PaintBenchmark.prepare(c, state);
+        final BufferedImage image = new BufferedImage(component.getWidth(), component.getHeight(),
+                BufferedImage.TYPE_INT_ARGB);
+        final Graphics2D g = image.createGraphics();
+
+        final long start = System.nanoTime();
+        while (System.nanoTime() - start < WARMUP_NANOS) {
+            c.paint(component, g);
+        }
+        long bytes = Long.MAX_VALUE;
+        for (int batch = 0; batch < BATCHES; batch++) {
+            final long before = PaintBenchmark.getAllocatedBytes();
+            for (int i = 0; i < PAINTS; i++) {
+                c.paint(component, g);
+            }
+            bytes = Math.min(bytes, (PaintBenchmark.getAllocatedBytes() - before) / PAINTS);
+        }
+        g.dispose();
+        return bytes;
+    }
+}
@@ -0,0 +1,527 @@
+package benchmarks;
+
+import com.bulenkov.darcula.DarculaLaf;
+import com.bulenkov.darcula.DarculaTableHeaderBorder;
+import com.bulenkov.darcula.ui.*;
+
+import javax.swing.*;
+import javax.swing.border.Border;
+import javax.swing.plaf.metal.MetalLookAndFeel;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Measures painting every Darcula UI delegate and border headlessly into a
+ * {@link BufferedImage}, in the normal, focused, pressed and disabled state.
+ * Runs like a JMH throughput benchmark with the GC profiler: a few timed
+ * warmup iterations, then measured ones, reporting ops/s with its standard
+ * deviation, the allocation rate and the bytes allocated per paint.
+ * <p>
+ * The optional argument is a regular expression selecting the benchmarks by
+ * name, e.g. {@code "combo.*|.*:focused"}; {@code -Dbenchmark.scale=2} paints
+ * with a 2x device transform.  On Java 9 and later, Darcula's painting needs
+ * {@code --add-exports java.desktop/sun.swing=ALL-UNNAMED}.
+ */
+public class PaintBenchmark {
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int ITERATIONS = 5;
+    private static final long ITERATION_NANOS = 100 * 1000000L;
+    private static final int BATCH = 16;
+
+    static final String[] STATES = {"normal", "focused", "pressed", "disabled"};
+
+    private static Component focusOwner;
+
+    public static void main(String[] args) throws Exception {
+        final Pattern include = Pattern.compile(args.length > 0 ? args[0] : ".*");
+        final int scale = Integer.getInteger("benchmark.scale", 1);
+
+        install();
+
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                System.out.println(String.format("%-40s %14s %10s %12s %10s", "Benchmark", "ops/s", "stddev",
+                        "alloc MB/s", "B/op"));
+                for (Case c : createCases()) {
+                    for (String state : STATES) {
+                        final String name = c.name + ":" + state;
+                        if (include.matcher(name).matches()) {
+                            measure(name, c, state, scale);
+                        }
+                    }
+                }
+            }
+        });
+        // The progress bar animation keeps a timer thread alive
+        System.exit(0);
+    }
+
+    /**
+     * Installs Darcula and a focus manager that reports the component under
+     * test as the focus owner, as headless components never get the focus.
+     */
+    static void install() throws Exception {
+        UIManager.setLookAndFeel(new MetalLookAndFeel());
+        UIManager.setLookAndFeel(new DarculaLaf());
+        KeyboardFocusManager.setCurrentKeyboardFocusManager(new DefaultKeyboardFocusManager() {
+            @Override
+            public Component getFocusOwner() {
+                return focusOwner;
+            }
+        });
+    }
+
+    /**
+     * Creates, sizes and lays out the component of {@code c} and puts it in
+     * {@code state}, making it the focus owner for the focused state.
+     */
+    static JComponent prepare(Case c, String state) {
+        final JComponent component = c.create();
+        new JPanel(null).add(component);
+        final Dimension size = component.getPreferredSize();
+        component.setSize(Math.max(size.width, c.minWidth), Math.max(size.height, 1));
+        layout(component);
+
+        final JComponent target = c.target(component);
+        focusOwner = "focused".equals(state) ? target : null;
+        if ("pressed".equals(state)) {
+            c.press(target);
+        } else if ("disabled".equals(state)) {
+            component.setEnabled(false);
+            target.setEnabled(false);
+        }
+        return component;
+    }
+
+    private static void measure(String name, Case c, String state, int scale) {
+        final JComponent component = prepare(c, state);
+
+        final BufferedImage image = new BufferedImage(component.getWidth() * scale, component.getHeight() * scale,
+                BufferedImage.TYPE_INT_ARGB);
+        final Graphics2D g = image.createGraphics();
+        g.scale(scale, scale);
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            iteration(c, component, g);
+        }
+        final double[] opsPerSecond = new double[ITERATIONS];
+        long ops = 0;
+        long nanos = 0;
+        final long allocatedBefore = getAllocatedBytes();
+        for (int i = 0; i < ITERATIONS; i++) {
+            final long start = System.nanoTime();
+            final long iterationOps = iteration(c, component, g);
+            final long iterationNanos = System.nanoTime() - start;
+            opsPerSecond[i] = iterationOps * 1e9 / iterationNanos;
+            ops += iterationOps;
+            nanos += iterationNanos;
+        }
+        final long allocated = getAllocatedBytes() - allocatedBefore;
+        g.dispose();
+        focusOwner = null;
+
+        double mean = 0;
+        for (double value : opsPerSecond) {
+            mean += value / ITERATIONS;
+        }
+        double variance = 0;
+        for (double value : opsPerSecond) {
+            variance += (value - mean) * (value - mean) / (ITERATIONS - 1);
+        }
+        if (allocatedBefore < 0) {
+            System.out.println(String.format("%-40s %14.1f %10.1f %12s %10s", name, mean, Math.sqrt(variance),
+                    "n/a", "n/a"));
+        } else {
+            System.out.println(String.format("%-40s %14.1f %10.1f %12.1f %10d", name, mean, Math.sqrt(variance),
+                    allocated / 1048576.0 / (nanos / 1e9), allocated / ops));
+        }
+    }
+
+    private static long iteration(Case c, JComponent component, Graphics2D g) {
+        long ops = 0;
+        final long start = System.nanoTime();
+        do {
+            for (int i = 0; i < BATCH; i++) {
+                c.paint(component, g);
+            }
+            ops += BATCH;
+        } while (System.nanoTime() - start < ITERATION_NANOS);
+        return ops;
+    }
+
+    /**
+     * Returns the bytes allocated by the current thread so far, or {@code -1}
+     * if the JVM can't tell.
+     */
+    static long getAllocatedBytes() {
+        final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean)bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private static void layout(Component c) {
+        c.doLayout();
+        if (c instanceof Container) {
+            for (Component child : ((Container)c).getComponents()) {
+                layout(child);
+            }
+        }
+    }
+
+    static List<Case> createCases() {
+        final List<Case> cases = new ArrayList<Case>();
+        cases.add(new Case("button") {
+            JComponent create() {
+                return new JButton("Button");
+            }
+        });
+        cases.add(new Case("toggleButton") {
+            JComponent create() {
+                return new JToggleButton("Toggle");
+            }
+        });
+        cases.add(new Case("checkBox") {
+            JComponent create() {
+                return new JCheckBox("Check", true);
+            }
+        });
+        cases.add(new Case("radioButton") {
+            JComponent create() {
+                return new JRadioButton("Radio", true);
+            }
+        });
+        cases.add(new Case("comboBox") {
+            JComponent create() {
+                return new JComboBox(new String[]{"One", "Two", "Three"});
+            }
+        });
+        cases.add(new Case("comboBox.editable") {
+            JComponent create() {
+                final JComboBox comboBox = new JComboBox(new String[]{"One", "Two", "Three"});
+                comboBox.setEditable(true);
+                return comboBox;
+            }
+        });
+        cases.add(new Case("textField") {
+            JComponent create() {
+                return new JTextField("Text", 16);
+            }
+        });
+        cases.add(new Case("textField.search") {
+            JComponent create() {
+                final JTextField field = new JTextField("Find", 16);
+                field.putClientProperty("JTextField.variant", "search");
+                return field;
+            }
+        });
+        cases.add(new Case("passwordField") {
+            JComponent create() {
+                return new JPasswordField("secret", 16);
+            }
+        });
+        cases.add(new Case("spinner") {
+            JComponent create() {
+                return new JSpinner();
+            }
+        });
+        cases.add(new Case("tree", 200) {
+            JComponent create() {
+                final JTree tree = new JTree();
+                for (int i = 0; i < tree.getRowCount(); i++) {
+                    tree.expandRow(i);
+                }
+                return new JScrollPane(tree);
+            }
+
+            void press(JComponent target) {
+                ((JTree)target).setSelectionRows(new int[]{1, 2, 5});
+            }
+
+            JComponent target(JComponent component) {
+                return (JComponent)((JScrollPane)component).getViewport().getView();
+            }
+        });
+        cases.add(new Case("table", 400) {
+            JComponent create() {
+                final JScrollPane scrollPane = new JScrollPane(new JTable(20, 8));
+                scrollPane.setPreferredSize(new Dimension(400, 200));
+                return scrollPane;
+            }
+
+            void press(JComponent target) {
+                ((JTable)target).setRowSelectionInterval(2, 4);
+            }
+
+            JComponent target(JComponent component) {
+                return (JComponent)((JScrollPane)component).getViewport().getView();
+            }
+        });
+        cases.add(new Case("scrollBar") {
+            JComponent create() {
+                final JScrollBar scrollBar = new JScrollBar(JScrollBar.VERTICAL);
+                scrollBar.setPreferredSize(new Dimension(14, 200));
+                return scrollBar;
+            }
+        });
+        cases.add(new Case("progressBar", 200) {
+            JComponent create() {
+                final JProgressBar progressBar = new JProgressBar(0, 100);
+                progressBar.setValue(40);
+                return progressBar;
+            }
+        });
+        cases.add(new Case("progressBar.indeterminate", 200) {
+            JComponent create() {
+                final JProgressBar progressBar = new JProgressBar();
+                progressBar.setIndeterminate(true);
+                return progressBar;
+            }
+        });
+        cases.add(new Case("slider") {
+            JComponent create() {
+                return new JSlider();
+            }
+
+            void press(JComponent target) {
+                ((JSlider)target).setValueIsAdjusting(true);
+            }
+        });
+        cases.add(new Case("tabbedPane", 200) {
+            JComponent create() {
+                final JTabbedPane tabbedPane = new JTabbedPane();
+                tabbedPane.addTab("One", new JLabel("One"));
+                tabbedPane.addTab("Two", new JLabel("Two"));
+                tabbedPane.addTab("Three", new JLabel("Three"));
+                return tabbedPane;
+            }
+
+            void press(JComponent target) {
+                ((JTabbedPane)target).setSelectedIndex(1);
+            }
+        });
+        cases.add(new Case("menuBar") {
+            JComponent create() {
+                final JMenuBar menuBar = new JMenuBar();
+                menuBar.add(new JMenu("File"));
+                menuBar.add(new JMenu("Edit"));
+                return menuBar;
+            }
+
+            void press(JComponent target) {
+                ((JMenu)target.getComponent(0)).setSelected(true);
+            }
+        });
+        cases.add(new Case("menu") {
+            JComponent create() {
+                return new JMenu("Menu");
+            }
+        });
+        cases.add(new Case("menuItem") {
+            JComponent create() {
+                return new JMenuItem("Item");
+            }
+        });
+        cases.add(new Case("checkBoxMenuItem") {
+            JComponent create() {
+                return new JCheckBoxMenuItem("Check", true);
+            }
+        });
+        cases.add(new Case("radioButtonMenuItem") {
+            JComponent create() {
+                return new JRadioButtonMenuItem("Radio", true);
+            }
+        });
+        cases.add(new Case("popupMenu") {
+            JComponent create() {
+                final JPopupMenu popupMenu = new JPopupMenu();
+                popupMenu.add(new JMenuItem("Item"));
+                popupMenu.add(new JCheckBoxMenuItem("Check", true));
+                popupMenu.addSeparator();
+                popupMenu.add(new JMenu("Submenu"));
+                return popupMenu;
+            }
+
+            void press(JComponent target) {
+                ((JMenuItem)target.getComponent(0)).setArmed(true);
+            }
+        });
+        cases.add(new Case("titlePane", 400) {
+            JComponent create() {
+                final JRootPane rootPane = new JRootPane();
+                // A frame's system menu asks the toolkit for the supported frame states, which fails headless
+                rootPane.setWindowDecorationStyle(JRootPane.PLAIN_DIALOG);
+                return new DarculaTitlePane(rootPane, (DarculaRootPaneUI)rootPane.getUI());
+            }
+        });
+        cases.add(new Case("internalFrame", 200) {
+            JComponent create() {
+                final JInternalFrame frame = new JInternalFrame("Frame", true, true, true, true);
+                frame.setPreferredSize(new Dimension(200, 120));
+                frame.setVisible(true);
+                return frame;
+            }
+        });
+        cases.add(new Case("toolBar") {
+            JComponent create() {
+                final JToolBar toolBar = new JToolBar();
+                toolBar.add(new JButton("One"));
+                toolBar.add(new JButton("Two"));
+                return toolBar;
+            }
+        });
+        cases.add(new Case("toolTip") {
+            JComponent create() {
+                final JToolTip toolTip = new JToolTip();
+                toolTip.setTipText("Tool tip");
+                return toolTip;
+            }
+        });
+        cases.add(new Case("splitPane", 200) {
+            JComponent create() {
+                final JSplitPane splitPane = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, new JLabel("Left"),
+                        new JLabel("Right"));
+                splitPane.setOneTouchExpandable(true);
+                return splitPane;
+            }
+        });
+
+        cases.add(new BorderCase("border.checkBox", new DarculaCheckBoxBorder()) {
+            JComponent create() {
+                return new JCheckBox("Check");
+            }
+        });
+        cases.add(new BorderCase("border.internal", new DarculaInternalBorder()) {
+            JComponent create() {
+                return new JInternalFrame("Frame");
+            }
+        });
+        cases.add(new BorderCase("border.internalFrame", new DarculaInternalFrameBorder()) {
+            JComponent create() {
+                return new JInternalFrame("Frame");
+            }
+        });
+        cases.add(new BorderCase("border.menuBar", new DarculaMenuBarBorder()) {
+            JComponent create() {
+                return new JMenuBar();
+            }
+        });
+        cases.add(new BorderCase("border.menuItem", new DarculaMenuItemBorder()) {
+            JComponent create() {
+                return new JMenuItem("Item");
+            }
+        });
+        cases.add(new BorderCase("border.popupMenu", new DarculaPopupMenuBorder()) {
+            JComponent create() {
+                return new JPopupMenu();
+            }
+        });
+        cases.add(new BorderCase("border.progressBar", new DarculaProgressBarBorder()) {
+            JComponent create() {
+                return new JProgressBar();
+            }
+        });
+        cases.add(new BorderCase("border.rootPane", new DarculaRootPaneBorder()) {
+            JComponent create() {
+                return new JRootPane();
+            }
+        });
+        cases.add(new BorderCase("border.scrollPane", new DarculaScrollPaneBorder()) {
+            JComponent create() {
+                return new JScrollPane(new JTree());
+            }
+        });
+        cases.add(new BorderCase("border.spinner", new DarculaSpinnerBorder()) {
+            JComponent create() {
+                return new JSpinner();
+            }
+        });
+        cases.add(new BorderCase("border.text", new DarculaTextBorder()) {
+            JComponent create() {
+                return new JTextField("Text", 16);
+            }
+        });
+        cases.add(new BorderCase("border.toolBarRollover", new DarculaToolBarRolloverBorder()) {
+            JComponent create() {
+                return new JButton("Button");
+            }
+        });
+        cases.add(new BorderCase("border.toolTip", new DarculaToolTipBorder()) {
+            JComponent create() {
+                return new JToolTip();
+            }
+        });
+        cases.add(new BorderCase("border.tableHeader", new DarculaTableHeaderBorder()) {
+            JComponent create() {
+                return new JTable(4, 4).getTableHeader();
+            }
+        });
+        return cases;
+    }
+
+    abstract static class Case {
+        final String name;
+        final int minWidth;
+
+        Case(String name) {
+            this(name, 1);
+        }
+
+        Case(String name, int minWidth) {
+            this.name = name;
+            this.minWidth = minWidth;
+        }
+
+        abstract JComponent create();
+
+        /**
+         * Returns the component that gets the focus, the press and the
+         * disabled state.
+         */
+        JComponent target(JComponent component) {
+            return component;
+        }
+
+        /**
+         * Arms and presses the component's button model, or that of its first
+         * button child, e.g. a combo box or spinner arrow.
+         */
+        void press(JComponent target) {
+            AbstractButton button = target instanceof AbstractButton ? (AbstractButton)target : null;
+            for (int i = 0; button == null && i < target.getComponentCount(); i++) {
+                if (target.getComponent(i) instanceof AbstractButton) {
+                    button = (AbstractButton)target.getComponent(i);
+                }
+            }
+            if (button != null) {
+                button.getModel().setArmed(true);
+                button.getModel().setPressed(true);
+                button.getModel().setRollover(true);
+            }
+        }
+
+        void paint(JComponent component, Graphics2D g) {
+            component.paint(g);
+        }
+    }
+
+    abstract static class BorderCase extends Case {
+        final Border border;
+
+        BorderCase(String name, Border border) {
+            super(name, 100);
+            this.border = border;
+        }
+
+        @Override
+        void paint(JComponent component, Graphics2D g) {
+            border.paintBorder(component, g, 0, 0, component.getWidth(), component.getHeight());
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package benchmarks;
+
+import com.bulenkov.darcula.DarculaLaf;
+import com.bulenkov.darcula.DarculaPrewarm;
+
+import javax.swing.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Starts {@link DarculaLaf#prewarm} on a small pool, simulates a splash screen
+ * and then installs Darcula, printing how much of every phase was overlapped.
+ * Pass the splash duration in milliseconds; {@code 0} shows the worst case.
+ */
+public class PrewarmReport {
+    public static void main(String[] args) throws Exception {
+        final long splashMillis = args.length > 0 ? Long.parseLong(args[0]) : 500;
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        DarculaLaf.prewarm(executor);
+        Thread.sleep(splashMillis);
+
+        final long start = System.nanoTime();
+        UIManager.setLookAndFeel(new DarculaLaf());
+        System.out.println("setLookAndFeel: " + (System.nanoTime() - start) / 1000 + " us after a "
+                           + splashMillis + " ms splash");
+        System.out.print(DarculaPrewarm.getReport());
+        executor.shutdown();
+    }
+}
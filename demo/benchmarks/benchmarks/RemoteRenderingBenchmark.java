@@ -0,0 +1,123 @@
+package benchmarks;
+
+import com.bulenkov.darcula.util.RenderingProfile;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.zip.Deflater;
+
+/**
+ * Compares the regular and the low-bandwidth {@link RenderingProfile} for the
+ * {@link PaintBenchmark} cases.  For each it reports the paints per second and,
+ * as a proxy for what a remote session ships, the number of distinct colors
+ * and the deflated size of one opaque frame; antialiased edges, translucent
+ * layers and gradients all show up as extra colors that compress poorly.
+ * <p>
+ * The optional argument selects the benchmarks by name like
+ * {@link PaintBenchmark} does, e.g. {@code "checkBox:.*"}.
+ */
+public class RemoteRenderingBenchmark {
+    private static final long MEASURE_NANOS = 200 * 1000000L;
+    private static final Color BACKGROUND = new Color(0x3c3f41);
+
+    public static void main(String[] args) throws Exception {
+        final Pattern include = Pattern.compile(args.length > 0 ? args[0] : ".*");
+        PaintBenchmark.install();
+
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                System.out.println(String.format("%-40s %12s %12s %8s %8s %10s %10s", "Benchmark", "ops/s", "low ops/s",
+                        "colors", "low", "bytes", "low bytes"));
+                final long[] total = new long[2];
+                for (PaintBenchmark.Case c : PaintBenchmark.createCases()) {
+                    for (String state : PaintBenchmark.STATES) {
+                        final String name = c.name + ":" + state;
+                        if (include.matcher(name).matches()) {
+                            final Result regular = measure(c, state, false);
+                            final Result low = measure(c, state, true);
+                            total[0] += regular.bytes;
+                            total[1] += low.bytes;
+                            System.out.println(String.format("%-40s %12.1f %12.1f %8d %8d %10d %10d", name,
+                                    regular.opsPerSecond, low.opsPerSecond, regular.colors, low.colors,
+                                    regular.bytes, low.bytes));
+                        }
+                    }
+                }
+                System.out.println(String.format("Total deflated frame bytes: %d regular, %d low-bandwidth (%.0f%%)",
+                        total[0], total[1], total[0] == 0 ? 100.0 : 100.0 * total[1] / total[0]));
+            }
+        });
+        // The progress bar animation keeps a timer thread alive
+        System.exit(0);
+    }
+
+    private static class Result {
+        double opsPerSecond;
+        int colors;
+        int bytes;
+    }
+
+    private static Result measure(PaintBenchmark.Case c, String state, boolean lowBandwidth) {
+        RenderingProfile.setLowBandwidth(lowBandwidth);
+        try {
+            final JComponent component = PaintBenchmark.prepare(c, state);
+            final BufferedImage image = new BufferedImage(component.getWidth(), component.getHeight(),
+                    BufferedImage.TYPE_INT_RGB);
+            final Graphics2D g = image.createGraphics();
+
+            final Result result = new Result();
+            // The first round warms up, the second one is measured
+            for (int round = 0; round < 2; round++) {
+                long ops = 0;
+                final long start = System.nanoTime();
+                long elapsed;
+                do {
+                    c.paint(component, g);
+                    ops++;
+                } while ((elapsed = System.nanoTime() - start) < MEASURE_NANOS);
+                result.opsPerSecond = ops * 1e9 / elapsed;
+            }
+            g.dispose();
+
+            final BufferedImage frame = new BufferedImage(image.getWidth(), image.getHeight(),
+                    BufferedImage.TYPE_INT_RGB);
+            final Graphics2D fg = frame.createGraphics();
+            fg.setColor(BACKGROUND);
+            fg.fillRect(0, 0, frame.getWidth(), frame.getHeight());
+            c.paint(component, fg);
+            fg.dispose();
+            measureFrame(frame, result);
+            return result;
+        } finally {
+            RenderingProfile.setLowBandwidth(false);
+        }
+    }
+
+    private static void measureFrame(BufferedImage frame, Result result) {
+        final int[] pixels = frame.getRGB(0, 0, frame.getWidth(), frame.getHeight(), null, 0, frame.getWidth());
+        final Set<Integer> colors = new HashSet<Integer>();
+        final byte[] data = new byte[pixels.length * 3];
+        for (int i = 0; i < pixels.length; i++) {
+            colors.add(pixels[i]);
+            data[3 * i] = (byte)(pixels[i] >> 16);
+            data[3 * i + 1] = (byte)(pixels[i] >> 8);
+            data[3 * i + 2] = (byte)pixels[i];
+        }
+        final Deflater deflater = new Deflater();
+        deflater.setInput(data);
+        deflater.finish();
+        final byte[] buffer = new byte[4096];
+        int bytes = 0;
+        while (!deflater.finished()) {
+            bytes += deflater.deflate(buffer);
+        }
+        deflater.end();
+        result.colors = colors.size();
+        result.bytes = bytes;
+    }
+}
@@ -0,0 +1,49 @@
+package benchmarks;
+
+import com.bulenkov.darcula.DarculaLaf;
+
+import javax.swing.*;
+import javax.swing.plaf.metal.MetalLookAndFeel;
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+/**
+ * Reports what installing Darcula costs up front: the classes loaded by
+ * {@code UIManager.setLookAndFeel(new DarculaLaf())} and the icon and border
+ * defaults that are still deferred afterwards, i.e. whose PNGs have not been
+ * decoded and whose classes have not been instantiated.
+ * Run it in a fresh JVM.
+ */
+public class StartupCostReport {
+    public static void main(String[] args) throws Exception {
+        // Initialize Swing and the default look and feel first, so that only Darcula is counted
+        UIManager.setLookAndFeel(new MetalLookAndFeel());
+
+        final ClassLoadingMXBean classLoading = ManagementFactory.getClassLoadingMXBean();
+        final long classesBefore = classLoading.getTotalLoadedClassCount();
+        final long start = System.nanoTime();
+
+        UIManager.setLookAndFeel(new DarculaLaf());
+
+        final long micros = (System.nanoTime() - start) / 1000;
+        final long classes = classLoading.getTotalLoadedClassCount() - classesBefore;
+
+        int deferredIcons = 0;
+        int deferredBorders = 0;
+        // entrySet() exposes the raw values; get() would resolve them
+        for (Map.Entry<Object, Object> entry : UIManager.getLookAndFeelDefaults().entrySet()) {
+            if (entry.getValue() instanceof UIDefaults.LazyValue && entry.getKey() instanceof String) {
+                final String key = ((String)entry.getKey()).toLowerCase();
+                if (key.endsWith("icon")) {
+                    deferredIcons++;
+                } else if (key.endsWith("border")) {
+                    deferredBorders++;
+                }
+            }
+        }
+
+        System.out.println("setLookAndFeel: " + micros + " us, " + classes + " classes loaded");
+        System.out.println("deferred icons: " + deferredIcons + ", deferred borders: " + deferredBorders);
+    }
+}
@@ -0,0 +1,82 @@
+package benchmarks;
+
+import com.bulenkov.darcula.DarculaLaf;
+
+import javax.swing.*;
+import javax.swing.text.Element;
+import javax.swing.text.StyleConstants;
+import javax.swing.text.html.HTML;
+import javax.swing.text.html.HTMLDocument;
+import javax.swing.text.html.HTMLEditorKit;
+import javax.swing.text.html.StyleSheet;
+import java.awt.*;
+
+/**
+ * Checks that a rule an application adds to the shared {@code HTMLEditorKit}
+ * style sheet wins over the Darcula theme's, even when it is added before the
+ * theme's rules are parsed, and that reinstalling the look and feel drops it
+ * again.  Exits with status 1 if any check fails.
+ */
+public class StyleSheetOverrideCheck {
+    private static final Color APPLICATION_COLOR = new Color(0xff0000);
+
+    public static void main(String[] args) throws Exception {
+        UIManager.setLookAndFeel(new DarculaLaf());
+
+        final int[] failures = new int[1];
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                new HTMLEditorKit().getStyleSheet().addRule("body { color: #ff0000 }");
+                final Color added = getBodyColor();
+                if (!check("application rule wins", APPLICATION_COLOR.equals(added), added)) {
+                    failures[0]++;
+                }
+
+                try {
+                    UIManager.setLookAndFeel(new DarculaLaf());
+                }
+                catch (UnsupportedLookAndFeelException e) {
+                    throw new IllegalStateException(e);
+                }
+                final Color reinstalled = getBodyColor();
+                if (!check("reinstall drops it", reinstalled != null && !APPLICATION_COLOR.equals(reinstalled),
+                        reinstalled)) {
+                    failures[0]++;
+                }
+            }
+        });
+        System.out.println(failures[0] == 0 ? "All checks passed" : failures[0] + " check(s) failed");
+        System.exit(failures[0] == 0 ? 0 : 1);
+    }
+
+    private static boolean check(String name, boolean ok, Color color) {
+        System.out.println(String.format("%-24s %-40s %s", name, color, ok ? "ok" : "FAILED"));
+        return ok;
+    }
+
+    /**
+     * Renders a document with the shared kit and returns the foreground its
+     * body resolves to.
+     */
+    private static Color getBodyColor() {
+        final JEditorPane pane = new JEditorPane("text/html", "<html><body>Text</body></html>");
+        final HTMLDocument document = (HTMLDocument)pane.getDocument();
+        final StyleSheet styles = document.getStyleSheet();
+        final Element body = findBody(document.getDefaultRootElement());
+        return body == null ? null : styles.getForeground(styles.getRule(HTML.Tag.BODY, body));
+    }
+
+    private static Element findBody(Element element) {
+        if (element.getAttributes().getAttribute(StyleConstants.NameAttribute) == HTML.Tag.BODY) {
+            return element;
+        }
+        for (int i = 0; i < element.getElementCount(); i++) {
+            final Element body = findBody(element.getElement(i));
+            if (body != null) {
+                return body;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bulenkov.darcula;
+
+import com.bulenkov.darcula.util.Registry;
+import com.bulenkov.iconloader.util.SystemInfo;
+
+import java.awt.*;
+import java.io.*;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Remembers which of the preferred UI fonts is installed, so that the full
+ * font family enumeration, which can take hundreds of milliseconds, is done
+ * once per JVM and, across runs, only when the font directories change.
+ * <p>
+ * Only Windows has candidate fonts (see {@link DarculaLaf#getSystemFont()}),
+ * so the result is only persisted there: in {@code %APPDATA%\darcula\fonts.properties},
+ * together with a fingerprint of the candidates, the JDK and the font
+ * directories (their modification times and entry counts).  Listing a font
+ * directory of about a thousand entries takes under a millisecond, against
+ * the hundreds of milliseconds of a cold enumeration.  A missing, stale or
+ * unreadable file simply causes a new enumeration.  Set
+ * {@code darcula.fontCache.noCache} to always enumerate.
+ */
+final class DarculaFontCache {
+  private static final String VERSION = "1";
+  private static final String NO_FONT = "";
+
+  private static String ourFingerprint;
+  private static String ourFont;
+
+  private DarculaFontCache() {
+  }
+
+  /**
+   * Returns the first of {@code candidates} that is an installed font
+   * family, or {@code null} if none is.
+   */
+  static synchronized String findFirstInstalled(String[] candidates) {
+    final boolean enabled = !Registry.is("darcula.fontCache.noCache");
+    final String fingerprint = getFingerprint(candidates);
+    if (enabled && fingerprint.equals(ourFingerprint)) {
+      return ourFont;
+    }
+
+    final File file = getCacheFile();
+    String font = enabled && file != null ? read(file, fingerprint) : null;
+    if (font == null) {
+      font = enumerate(candidates);
+      if (enabled && file != null) {
+        write(file, fingerprint, font);
+      }
+    }
+    ourFingerprint = fingerprint;
+    ourFont = NO_FONT.equals(font) ? null : font;
+    return ourFont;
+  }
+
+  private static String enumerate(String[] candidates) {
+    final Set<String> available = new HashSet<String>(
+      Arrays.asList(GraphicsEnvironment.getLocalGraphicsEnvironment().getAvailableFontFamilyNames()));
+    for (String candidate : candidates) {
+      if (available.contains(candidate)) {
+        return candidate;
+      }
+    }
+    return NO_FONT;
+  }
+
+  private static String read(File file, String fingerprint) {
+    if (!file.isFile()) {
+      return null;
+    }
+    final Properties properties = new Properties();
+    try {
+      final InputStream stream = new FileInputStream(file);
+      try {
+        properties.load(stream);
+      }
+      finally {
+        stream.close();
+      }
+    }
+    catch (Exception e) {
+      return null;
+    }
+    if (!VERSION.equals(properties.getProperty("version")) || !fingerprint.equals(properties.getProperty("fingerprint"))) {
+      return null;
+    }
+    return properties.getProperty("font");
+  }
+
+  private static void write(File file, String fingerprint, String font) {
+    final Properties properties = new Properties();
+    properties.setProperty("version", VERSION);
+    properties.setProperty("fingerprint", fingerprint);
+    properties.setProperty("font", font);
+    try {
+      final File dir = file.getParentFile();
+      if (!dir.isDirectory() && !dir.mkdirs()) {
+        return;
+      }
+      // Write a temporary file and rename it, so readers never see a partial file
+      final File temp = File.createTempFile("fonts", ".tmp", dir);
+      final OutputStream stream = new FileOutputStream(temp);
+      try {
+        properties.store(stream, "Darcula font discovery cache");
+      }
+      finally {
+        stream.close();
+      }
+      if (!temp.renameTo(file) && !(file.delete() && temp.renameTo(file))) {
+        temp.delete();
+      }
+    }
+    catch (Exception ignore) {
+    }
+  }
+
+  private static File getCacheFile() {
+    if (!SystemInfo.isWindows) {
+      return null;
+    }
+    try {
+      final String base = System.getenv("APPDATA");
+      return base == null ? null : new File(new File(base, "darcula"), "fonts.properties");
+    }
+    catch (SecurityException e) {
+      return null;
+    }
+  }
+
+  private static String getFingerprint(String[] candidates) {
+    final StringBuilder fingerprint = new StringBuilder();
+    fingerprint.append(Arrays.toString(candidates)).append(';').append(System.getProperty("java.version"));
+    for (String path : getFontDirectories()) {
+      final File dir = new File(path);
+      final String[] names = dir.list();
+      fingerprint.append(';').append(path).append('=');
+      if (names == null) {
+        fingerprint.append('-');
+      } else {
+        fingerprint.append(dir.lastModified()).append('/').append(names.length);
+      }
+    }
+    return fingerprint.toString();
+  }
+
+  private static String[] getFontDirectories() {
+    if (!SystemInfo.isWindows) {
+      return new String[0];
+    }
+    return new String[] {System.getenv("WINDIR") + "\\Fonts",
+                         System.getenv("LOCALAPPDATA") + "\\Microsoft\\Windows\\Fonts"};
+  }
+}
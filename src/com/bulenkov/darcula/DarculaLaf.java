@@ -18,9 +18,7 @@ package com.bulenkov.darcula;
 
 import com.bulenkov.darcula.util.ImageUtil;
 import com.bulenkov.iconloader.IconLoader;
-import com.bulenkov.iconloader.util.ColorUtil;
 import com.bulenkov.iconloader.util.EmptyIcon;
-import com.bulenkov.iconloader.util.StringUtil;
 import com.bulenkov.iconloader.util.SystemInfo;
 
 import javax.swing.*;
@@ -28,23 +26,20 @@ import javax.swing.border.Border;
 import javax.swing.plaf.BorderUIResource;
 import javax.swing.plaf.ColorUIResource;
 import javax.swing.plaf.IconUIResource;
-import javax.swing.plaf.InsetsUIResource;
 import javax.swing.plaf.basic.BasicLookAndFeel;
 import javax.swing.plaf.metal.MetalLookAndFeel;
 import javax.swing.text.DefaultEditorKit;
 import javax.swing.text.html.HTMLEditorKit;
-import javax.swing.text.html.StyleSheet;
 import java.awt.*;
 import java.awt.Font;
 import java.awt.event.InputEvent;
 import java.awt.event.KeyEvent;
-import java.io.*;
 import java.lang.reflect.Method;
-import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Properties;
+import java.util.Map;
+import java.util.concurrent.Executor;
 
 /**
  * @author Konstantin Bulenkov
@@ -52,10 +47,30 @@ import java.util.Properties;
 public final class DarculaLaf extends BasicLookAndFeel {
   public static final String NAME = "Darcula";
   BasicLookAndFeel base;
+
+  // Icon keys and the resources they are loaded from
+  static final String[] ICONS = {
+    "Tree.collapsedIcon", "/com/bulenkov/darcula/icons/treeNodeCollapsed.png",
+    "Tree.expandedIcon", "/com/bulenkov/darcula/icons/treeNodeExpanded.png",
+    "Tree.closedIcon", "/com/bulenkov/darcula/icons/treeNodeClosed.png",
+    "Tree.openIcon", "/com/bulenkov/darcula/icons/treeNodeClosed.png", // same
+    "Tree.leafIcon", "/com/bulenkov/darcula/icons/treeNodeLeaf.png",
+    "Menu.arrowIcon", "/com/bulenkov/darcula/icons/menuItemArrowIcon.png",
+    "InternalFrame.icon", "/com/bulenkov/darcula/icons/internalFrame.png",
+    "OptionPane.informationIcon", "/com/bulenkov/darcula/icons/option_pane_info.png",
+    "OptionPane.questionIcon", "/com/bulenkov/darcula/icons/option_pane_question.png",
+    "OptionPane.warningIcon", "/com/bulenkov/darcula/icons/option_pane_warning.png",
+    "OptionPane.errorIcon", "/com/bulenkov/darcula/icons/option_pane_error.png",
+  };
+
+  private static final Map<String, Method> ourBaseMethods = new HashMap<String, Method>();
+  // Metal's combo box key bindings, for base look and feels other than Metal
+  private static Object[] ourMetalComboBoxBindings;
+
   public DarculaLaf() {
     try {
       if (SystemInfo.isWindows || SystemInfo.isLinux) {
-        base = new MetalLookAndFeel();
+        base = new DarculaMetalBridge();
         MetalLookAndFeel.setCurrentTheme(new DarculaMetalTheme());
       } else {
         final String name = UIManager.getSystemLookAndFeelClassName();
@@ -69,17 +84,39 @@ public final class DarculaLaf extends BasicLookAndFeel {
 
   private void callInit(String method, UIDefaults defaults) {
     try {
-      final Method superMethod = BasicLookAndFeel.class.getDeclaredMethod(method, UIDefaults.class);
-      superMethod.setAccessible(true);
-      superMethod.invoke(base, defaults);
+      getBaseMethod(method, UIDefaults.class).invoke(base, defaults);
     }
     catch (Exception ignore) {
       log(ignore);
     }
   }
 
+  /**
+   * Returns a protected {@link BasicLookAndFeel} method for delegating to a
+   * base look and feel other than Metal, which is called directly through
+   * {@link DarculaMetalBridge}.  Looked up once; {@code null} if the JDK
+   * doesn't allow access.
+   */
+  private static Method getBaseMethod(String name, Class<?>... parameterTypes) {
+    synchronized (ourBaseMethods) {
+      if (!ourBaseMethods.containsKey(name)) {
+        Method method;
+        try {
+          method = BasicLookAndFeel.class.getDeclaredMethod(name, parameterTypes);
+          method.setAccessible(true);
+        }
+        catch (Exception e) {
+          log(e);
+          method = null;
+        }
+        ourBaseMethods.put(name, method);
+      }
+      return ourBaseMethods.get(name);
+    }
+  }
+
   @SuppressWarnings("UnusedParameters")
-  private static void log(Exception e) {
+  static void log(Exception e) {
     //everything is gonna be alright
     //e.printStackTrace();
   }
@@ -87,30 +124,18 @@ public final class DarculaLaf extends BasicLookAndFeel {
   @Override
   public UIDefaults getDefaults() {
     try {
-      final Method superMethod = BasicLookAndFeel.class.getDeclaredMethod("getDefaults");
-      superMethod.setAccessible(true);
-      final UIDefaults metalDefaults =
-          (UIDefaults)superMethod.invoke(new MetalLookAndFeel());
-      final UIDefaults defaults = (UIDefaults)superMethod.invoke(base);
+      final UIDefaults defaults = base.getDefaults();
       initInputMapDefaults(defaults);
       initIdeaDefaults(defaults);
       patchStyledEditorKit();
-      patchComboBox(metalDefaults, defaults);
+      patchComboBox(defaults);
       defaults.remove("Spinner.arrowButtonBorder");
       defaults.put("Spinner.arrowButtonSize", new Dimension(16, 5));
-      defaults.put("Tree.collapsedIcon", new IconUIResource(IconLoader.getIcon("/com/bulenkov/darcula/icons/treeNodeCollapsed.png")));
-      defaults.put("Tree.expandedIcon", new IconUIResource(IconLoader.getIcon("/com/bulenkov/darcula/icons/treeNodeExpanded.png")));
-      defaults.put("Tree.closedIcon", new IconUIResource(IconLoader.getIcon("/com/bulenkov/darcula/icons/treeNodeClosed.png")));
-      defaults.put("Tree.openIcon", new IconUIResource(IconLoader.getIcon("/com/bulenkov/darcula/icons/treeNodeClosed.png"))); // same
-      defaults.put("Tree.leafIcon", new IconUIResource(IconLoader.getIcon("/com/bulenkov/darcula/icons/treeNodeLeaf.png")));
-      defaults.put("Menu.arrowIcon", new IconUIResource(IconLoader.getIcon("/com/bulenkov/darcula/icons/menuItemArrowIcon.png")));
+      for (int i = 0; i < ICONS.length; i += 2) {
+        defaults.put(ICONS[i], lazyIcon(ICONS[i + 1]));
+      }
       defaults.put("CheckBoxMenuItem.checkIcon", EmptyIcon.create(16));
       defaults.put("RadioButtonMenuItem.checkIcon", EmptyIcon.create(16));
-      defaults.put("InternalFrame.icon", new IconUIResource(IconLoader.getIcon("/com/bulenkov/darcula/icons/internalFrame.png")));
-      defaults.put("OptionPane.informationIcon", new IconUIResource(IconLoader.getIcon("/com/bulenkov/darcula/icons/option_pane_info.png")));
-      defaults.put("OptionPane.questionIcon", new IconUIResource(IconLoader.getIcon("/com/bulenkov/darcula/icons/option_pane_question.png")));
-      defaults.put("OptionPane.warningIcon", new IconUIResource(IconLoader.getIcon("/com/bulenkov/darcula/icons/option_pane_warning.png")));
-      defaults.put("OptionPane.errorIcon", new IconUIResource(IconLoader.getIcon("/com/bulenkov/darcula/icons/option_pane_error.png")));
       defaults.put("TitledBorder.border", new BorderUIResource.LineBorderUIResource(new ColorUIResource(0x6b, 0x6b, 0x6b)));
 
       // Remove "focused cell" border around selected cell/tree node/list item.
@@ -132,47 +157,71 @@ public final class DarculaLaf extends BasicLookAndFeel {
     return super.getDefaults();
   }
 
-  private static void patchComboBox(UIDefaults metalDefaults, UIDefaults defaults) {
-    defaults.remove("ComboBox.ancestorInputMap");
-    defaults.remove("ComboBox.actionMap");
-    defaults.put("ComboBox.ancestorInputMap", metalDefaults.get("ComboBox.ancestorInputMap"));
-    defaults.put("ComboBox.actionMap", metalDefaults.get("ComboBox.actionMap"));
+  /**
+   * Returns a value that loads the icon at {@code path} the first time it is
+   * looked up, so icons of components the application never shows are never
+   * decoded.
+   */
+  private static Object lazyIcon(final String path) {
+    return new UIDefaults.LazyValue() {
+      @Override
+      public Object createValue(UIDefaults table) {
+        return new IconUIResource(IconLoader.getIcon(path));
+      }
+    };
   }
 
-  @SuppressWarnings("IOResourceOpenedButNotSafelyClosed")
-  private static void patchStyledEditorKit() {
-
-    StyleSheet defaultStyles = new StyleSheet();
+  private void patchComboBox(UIDefaults defaults) {
+    defaults.remove("ComboBox.actionMap");
+    if (!(base instanceof MetalLookAndFeel)) {
+      defaults.put("ComboBox.ancestorInputMap", new UIDefaults.LazyInputMap(getMetalComboBoxBindings()));
+    }
+  }
 
-    try {
+  private static synchronized Object[] getMetalComboBoxBindings() {
+    if (ourMetalComboBoxBindings == null) {
+      final InputMap inputMap = (InputMap)new MetalLookAndFeel().getDefaults().get("ComboBox.ancestorInputMap");
+      final KeyStroke[] keys = inputMap == null ? null : inputMap.allKeys();
+      final List<Object> bindings = new ArrayList<Object>();
+      if (keys != null) {
+        for (KeyStroke key : keys) {
+          bindings.add(key);
+          bindings.add(inputMap.get(key));
+        }
+      }
+      ourMetalComboBoxBindings = bindings.toArray();
+    }
+    return ourMetalComboBoxBindings;
+  }
 
-      InputStream is = DarculaLaf.class.getResourceAsStream("darcula.css");
-      Reader r = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8));
-      defaultStyles.loadRules(r, null);
-      r.close();
+  private static void patchStyledEditorKit() {
+    // Waits for a prewarmed parse; the shared sheet parses itself on first use otherwise
+    DarculaPrewarm.consume(DarculaPrewarm.Phase.STYLE_SHEET);
 
-      // See setStyleSheet() implementation; this value is shared across all
-      // instances of HTMLEditorKit.  Odd, I know.
-      new HTMLEditorKit().setStyleSheet(defaultStyles);
-    } catch (Exception e) {
-      log(e);
-    }
+    // See setStyleSheet() implementation; this value is shared across all
+    // instances of HTMLEditorKit.  Odd, I know.
+    new HTMLEditorKit().setStyleSheet(DarculaStyleSheet.create());
   }
 
-  private void call(String method) {
-    try {
-      final Method superMethod = BasicLookAndFeel.class.getDeclaredMethod(method);
-      superMethod.setAccessible(true);
-      superMethod.invoke(base);
-    }
-    catch (Exception ignore) {
-      log(ignore);
-    }
+  /**
+   * Starts loading fonts, style sheets, theme properties, icons and UI
+   * classes on {@code executor}, e.g. while a splash screen is showing.
+   * {@link #getDefaults()} picks up the results, waiting for phases that are
+   * still running, so calling this early shortens the time spent in
+   * {@code UIManager.setLookAndFeel}.  {@link DarculaPrewarm#getReport()} shows
+   * how much of each phase was overlapped.
+   */
+  public static void prewarm(Executor executor) {
+    DarculaPrewarm.start(executor);
   }
 
   public void initComponentDefaults(UIDefaults defaults) {
     System.out.println("In initComponentDefaults");
-    callInit("initComponentDefaults", defaults);
+    if (base instanceof DarculaMetalBridge) {
+      ((DarculaMetalBridge)base).initComponentDefaults(defaults);
+    } else {
+      callInit("initComponentDefaults", defaults);
+    }
   }
 
   @SuppressWarnings({"HardCodedStringLiteral"})
@@ -231,84 +280,12 @@ public final class DarculaLaf extends BasicLookAndFeel {
     }));
   }
 
-  @SuppressWarnings("IOResourceOpenedButNotSafelyClosed")
   private static void loadDefaults(UIDefaults defaults) {
-    final Properties properties = new Properties();
-    final String osSuffix = SystemInfo.isMac ? "mac" : SystemInfo.isWindows ? "windows" : "linux";
-    try {
-      InputStream stream = DarculaLaf.class.getResourceAsStream("darcula.properties");
-      properties.load(stream);
-      stream.close();
-
-      stream = DarculaLaf.class.getResourceAsStream("darcula_" + osSuffix + ".properties");
-      properties.load(stream);
-      stream.close();
-
-      HashMap<String, Object> darculaGlobalSettings = new HashMap<String, Object>();
-      final String prefix = "darcula.";
-      for (String key : properties.stringPropertyNames()) {
-        if (key.startsWith(prefix)) {
-          darculaGlobalSettings.put(key.substring(prefix.length()), parseValue(key, properties.getProperty(key)));
-        }
-      }
-
-      for (Object key : defaults.keySet()) {
-        if (key instanceof String && ((String)key).contains(".")) {
-          final String s = (String)key;
-          final String darculaKey = s.substring(s.lastIndexOf('.') + 1);
-          if (darculaGlobalSettings.containsKey(darculaKey)) {
-            defaults.put(key, darculaGlobalSettings.get(darculaKey));
-          }
-        }
-      }
-
-      for (String key : properties.stringPropertyNames()) {
-        final String value = properties.getProperty(key);
-        defaults.put(key, parseValue(key, value));
-      }
-    }
-    catch (IOException e) {log(e);}
-  }
-
-  private static Object parseValue(String key, String value) {
-    if ("null".equals(value)) {
-      return null;
-    }
-    if (key.endsWith(".margin") || key.endsWith("Insets")) {
-      final List<String> numbers = StringUtil.split(value, ",");
-      return new InsetsUIResource(Integer.parseInt(numbers.get(0)),
-          Integer.parseInt(numbers.get(1)),
-          Integer.parseInt(numbers.get(2)),
-          Integer.parseInt(numbers.get(3)));
-    } else if (key.endsWith(".border") || key.endsWith("Border")) {
-      try {
-        return Class.forName(value).newInstance();
-      } catch (Exception e) {log(e);}
-    } else {
-      final Color color = ColorUtil.fromHex(value, null);
-      final Integer invVal = getInteger(value);
-      final Boolean boolVal = "true".equals(value) ? Boolean.TRUE : "false".equals(value) ? Boolean.FALSE : null;
-      Icon icon = key.toLowerCase().endsWith("icon") ? null : null; //TODO: copy image loading
-      if (color != null) {
-        return  new ColorUIResource(color);
-      } else if (invVal != null) {
-        return invVal;
-      } else if (icon != null) {
-        return new IconUIResource(icon);
-      } else if (boolVal != null) {
-        return boolVal;
-      }
-    }
-    return value;
-  }
-
-  private static Integer getInteger(String value) {
-    try {
-      return Integer.parseInt(value);
-    }
-    catch (NumberFormatException e) {
-      return null;
+    DarculaTheme theme = (DarculaTheme)DarculaPrewarm.consume(DarculaPrewarm.Phase.THEME);
+    if (theme == null) {
+      theme = DarculaTheme.getInstance();
     }
+    theme.apply(defaults);
   }
 
 
@@ -339,33 +316,45 @@ public final class DarculaLaf extends BasicLookAndFeel {
 
   @Override
   protected void initSystemColorDefaults(UIDefaults defaults) {
-    callInit("initSystemColorDefaults", defaults);
+    if (base instanceof DarculaMetalBridge) {
+      ((DarculaMetalBridge)base).initSystemColorDefaults(defaults);
+    } else {
+      callInit("initSystemColorDefaults", defaults);
+    }
   }
 
   @Override
   protected void initClassDefaults(UIDefaults defaults) {
-    callInit("initClassDefaults", defaults);
+    if (base instanceof DarculaMetalBridge) {
+      ((DarculaMetalBridge)base).initClassDefaults(defaults);
+    } else {
+      callInit("initClassDefaults", defaults);
+    }
   }
 
   @Override
   public void initialize() {
-    call("initialize");
+    if (base != null) {
+      base.initialize();
+    }
   }
 
   @Override
   public void uninitialize() {
-    call("uninitialize");
+    if (base != null) {
+      base.uninitialize();
+    }
   }
 
   @Override
   protected void loadSystemColors(UIDefaults defaults, String[] systemColors, boolean useNative) {
+    if (base instanceof DarculaMetalBridge) {
+      ((DarculaMetalBridge)base).loadSystemColors(defaults, systemColors, useNative);
+      return;
+    }
     try {
-      final Method superMethod = BasicLookAndFeel.class.getDeclaredMethod("loadSystemColors",
-          UIDefaults.class,
-          String[].class,
-          boolean.class);
-      superMethod.setAccessible(true);
-      superMethod.invoke(base, defaults, systemColors, useNative);
+      getBaseMethod("loadSystemColors", UIDefaults.class, String[].class, boolean.class)
+        .invoke(base, defaults, systemColors, useNative);
     }
     catch (Exception ignore) {
       log(ignore);
@@ -421,9 +410,7 @@ public final class DarculaLaf extends BasicLookAndFeel {
     inputMap.put(KeyStroke.getKeyStroke(KeyEvent.VK_X, InputEvent.CTRL_MASK | InputEvent.CTRL_DOWN_MASK), DefaultEditorKit.cutAction);
   }
 
-  private static String getSystemFont() {
-
-    List<String> availableFonts = Arrays.asList(GraphicsEnvironment.getLocalGraphicsEnvironment().getAvailableFontFamilyNames());
+  static String getSystemFont() {
     String[] possibilities = null;
 
     String os = System.getProperty("os.name").toLowerCase();
@@ -434,14 +421,8 @@ public final class DarculaLaf extends BasicLookAndFeel {
 //      possibilities = new String[] { "San Francisco", "Helvetica Neue", "Lucida Grande" };
 //    }
 
-    if (possibilities != null) {
-      for (String possibility : possibilities) {
-        if (availableFonts.contains(possibility)) {
-          return possibility;
-        }
-      }
-    }
-    return null;
+    // Enumerating the font families is slow, so only do it when there is a choice to make
+    return possibilities == null ? null : DarculaFontCache.findFirstInstalled(possibilities);
   }
 
   /**
@@ -455,7 +436,11 @@ public final class DarculaLaf extends BasicLookAndFeel {
    */
   public static void possiblyUpdateFonts(UIDefaults table) {
 
-    String font = getSystemFont();
+    String font = DarculaPrewarm.isPending(DarculaPrewarm.Phase.FONTS)
+                  ? (String)DarculaPrewarm.consume(DarculaPrewarm.Phase.FONTS)
+                  : null;
+    // A failed prewarm yields null too; getSystemFont() is cheap after a lookup that found nothing
+    font = font == null ? getSystemFont() : font;
 
     if (font != null) {
 
@@ -505,11 +490,32 @@ public final class DarculaLaf extends BasicLookAndFeel {
       };
       table.putDefaults(fonts);
 
+      // Rendered on first use, so they pick up the installed "text" color
       Object[] icons = {
-              "InternalFrame.closeIcon", ImageUtil.getCloseIcon(16),
-              "InternalFrame.iconifyIcon", ImageUtil.getMinimizeIcon(16),
-              "InternalFrame.minimizeIcon", ImageUtil.getRestoreIcon(16),
-              "InternalFrame.maximizeIcon", ImageUtil.getMaximizeIcon(16)
+              "InternalFrame.closeIcon", new UIDefaults.LazyValue() {
+                @Override
+                public Object createValue(UIDefaults table) {
+                  return ImageUtil.getCloseIcon(16);
+                }
+              },
+              "InternalFrame.iconifyIcon", new UIDefaults.LazyValue() {
+                @Override
+                public Object createValue(UIDefaults table) {
+                  return ImageUtil.getMinimizeIcon(16);
+                }
+              },
+              "InternalFrame.minimizeIcon", new UIDefaults.LazyValue() {
+                @Override
+                public Object createValue(UIDefaults table) {
+                  return ImageUtil.getRestoreIcon(16);
+                }
+              },
+              "InternalFrame.maximizeIcon", new UIDefaults.LazyValue() {
+                @Override
+                public Object createValue(UIDefaults table) {
+                  return ImageUtil.getMaximizeIcon(16);
+                }
+              }
       };
       table.putDefaults(icons);
     }
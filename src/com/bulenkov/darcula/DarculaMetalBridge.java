@@ -0,0 +1,46 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bulenkov.darcula;
+
+import javax.swing.*;
+import javax.swing.plaf.metal.MetalLookAndFeel;
+
+/**
+ * The Metal base look and feel, with the protected initialization hooks
+ * {@link DarculaLaf} delegates to made public, so they can be called
+ * directly instead of through reflection.
+ */
+final class DarculaMetalBridge extends MetalLookAndFeel {
+  @Override
+  public void initClassDefaults(UIDefaults table) {
+    super.initClassDefaults(table);
+  }
+
+  @Override
+  public void initSystemColorDefaults(UIDefaults table) {
+    super.initSystemColorDefaults(table);
+  }
+
+  @Override
+  public void initComponentDefaults(UIDefaults table) {
+    super.initComponentDefaults(table);
+  }
+
+  @Override
+  public void loadSystemColors(UIDefaults table, String[] systemColors, boolean useNative) {
+    super.loadSystemColors(table, systemColors, useNative);
+  }
+}
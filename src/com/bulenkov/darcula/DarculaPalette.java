@@ -0,0 +1,166 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bulenkov.darcula;
+
+import com.bulenkov.iconloader.util.DoubleColor;
+import com.bulenkov.iconloader.util.Gray;
+import com.bulenkov.iconloader.util.UIUtil;
+
+import javax.swing.*;
+import java.awt.*;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+
+/**
+ * The colors the Darcula delegates paint with, resolved from {@link UIManager}
+ * once instead of on every paint.  A palette is immutable; any change of the
+ * look and feel or of its defaults drops the current one, and the next
+ * {@link #getInstance()} resolves a new one, so a paint always sees one
+ * consistent set of colors.  Colors missing from the defaults are null unless
+ * a fallback is given.
+ */
+public final class DarculaPalette {
+  private static volatile DarculaPalette ourInstance;
+  // Counts invalidations, so a palette resolved while the defaults changed isn't kept
+  private static int ourGeneration;
+  private static UIDefaults ourWatchedDefaults;
+  private static boolean ourWatching;
+
+  private static final PropertyChangeListener ourInvalidator = new PropertyChangeListener() {
+    @Override
+    public void propertyChange(PropertyChangeEvent evt) {
+      invalidate();
+    }
+  };
+
+  public static final Color INACTIVE_BORDER = new Color(0x535353);
+
+  public final Color buttonBackground = UIManager.getColor("Button.darcula.background");
+  public final Color buttonDefaultBackground = UIManager.getColor("Button.darcula.defaultButtonBackground");
+  public final Color buttonSelectedForeground = UIManager.getColor("Button.darcula.selectedButtonForeground");
+  public final Color buttonDisabledText = UIManager.getColor("Button.disabledText");
+  public final Color buttonBorder = UIManager.getColor("Button.darcula.borderColor");
+  public final Color buttonDefaultBorder = UIManager.getColor("Button.darcula.borderColor.defaultButton");
+  public final Color toolBarButtonArmedBackground = UIManager.getColor("ToolBar.Button.armedBackground");
+  public final Color toolBarButtonRolloverBackground = UIManager.getColor("ToolBar.Button.rolloverBackground");
+  public final Color toolBarRolloverBorder = UIManager.getColor("ToolBar.rolloverBorder.color");
+
+  public final Color checkBoxBackground = checkBoxColor("checkBoxBackgroundColor", null);
+  public final Color checkBoxBorder = checkBoxColor("checkBoxBorderColor", null);
+  public final Color checkBoxInactiveFill = checkBoxColor("inactiveFillColor", Gray._40.withAlpha(180));
+  public final Color checkBoxBorder1 = checkBoxColor("borderColor1", Gray._120.withAlpha(0x5a));
+  public final Color checkBoxDisabledBorder1 = checkBoxColor("disabledBorderColor1", Gray._120.withAlpha(90));
+  public final Color checkBoxBorder2 = checkBoxColor("borderColor2", Gray._105.withAlpha(90));
+  public final Color checkBoxDisabledBorder2 = checkBoxColor("disabledBorderColor2", Gray._105.withAlpha(90));
+  public final Color checkBoxBackground1 = checkBoxColor("backgroundColor1", Gray._110);
+  public final Color checkBoxBackground2 = checkBoxColor("backgroundColor2", Gray._95);
+  public final Color checkSign = checkBoxColor("checkSignColor", Gray._170);
+  public final Color checkSignDisabled = checkBoxColor("checkSignColorDisabled", Gray._120);
+  public final Color radioSelection = UIManager.getColor("RadioButton.darcula.selectionEnabledColor");
+  public final Color radioSelectionDisabled = UIManager.getColor("RadioButton.darcula.selectionDisabledColor");
+
+  public final Color comboArrowFill = UIManager.getColor("ComboBox.darcula.arrowFillColor");
+  public final Color comboArrowFocusedFill = UIManager.getColor("ComboBox.darcula.arrowFocusedFillColor");
+  public final Color comboBorder = new DoubleColor(Gray._150, Gray._100);
+
+  public final Color spinnerButton = UIManager.getColor("Spinner.darcula.enabledButtonColor");
+  public final Color spinnerButtonDisabled = UIManager.getColor("Spinner.darcula.disabledButtonColor");
+  public final Color spinnerBorder = new DoubleColor(Gray._149, Gray._100);
+  // Arrows of spinners and split pane dividers
+  public final Color arrow = new DoubleColor(Gray._255, UIUtil.getLabelForeground());
+  public final Color arrowDisabled = new DoubleColor(Gray._200, UIUtil.getLabelForeground().darker());
+
+  public final DoubleColor scrollBarGradientLight = new DoubleColor(Gray._251, Gray._95);
+  public final DoubleColor scrollBarGradientDark = new DoubleColor(Gray._215, Gray._80);
+  public final DoubleColor scrollBarThumbBorder = new DoubleColor(Gray._201, Gray._85);
+  public final DoubleColor scrollBarTrackBackground = new DoubleColor(Gray._245, UIUtil.getListBackground());
+  public final DoubleColor scrollBarTrackBorder = new DoubleColor(Gray._230, UIUtil.getListBackground());
+
+  public final Color sliderTrackBackground = UIManager.getColor("Slider.trackBackground");
+  public final Color sliderSelectedTrack = UIManager.getColor("Slider.selectedTrackColor");
+  public final Color sliderDisabledTick = UIManager.getColor("Slider.disabledTickColor");
+  public final Color sliderThumbBorder = UIManager.getColor("Slider.thumbBorderColor");
+  public final Color sliderThumbBorderDisabled = UIManager.getColor("Slider.thumbBorderColorDisabled");
+
+  public final Color tabbedPaneSelected = UIManager.getColor("TabbedPane.selected");
+  public final Color separatorForeground = UIManager.getColor("Separator.foreground");
+  public final Color menuBarBorder = UIManager.getColor("MenuBar.darcula.borderColor");
+  public final Color menuItemBackground = UIManager.getColor("MenuItem.background");
+
+  public final Color internalFrameBorder = UIManager.getColor("InternalFrame.darcula.borderColor");
+  public final Color internalFrameTitleBorderTop = UIManager.getColor("InternalFrameTitlePane.darcula.borderColorTop");
+  public final Color internalFrameTitleBorderLeft = UIManager.getColor("InternalFrameTitlePane.darcula.borderColorLeft");
+  public final Color internalFrameTitleBorderBottom = UIManager.getColor("InternalFrameTitlePane.darcula.borderColorBottom");
+  public final Color internalFrameSelectedTitleBorderTop =
+    UIManager.getColor("InternalFrameTitlePane.darcula.selected.borderColorTop");
+  public final Color internalFrameSelectedTitleBorderLeft =
+    UIManager.getColor("InternalFrameTitlePane.darcula.selected.borderColorLeft");
+  public final Color internalFrameSelectedTitleBorderBottom =
+    UIManager.getColor("InternalFrameTitlePane.darcula.selected.borderColorBottom");
+
+  public final Color titlePaneHoveredButton = UIManager.getColor("DarculaTitlePane.hovered.buttonColor");
+  public final Color titlePaneHoveredCloseButton = UIManager.getColor("DarculaTitlePane.hovered.closeButtonColor");
+
+  private DarculaPalette() {
+  }
+
+  public static DarculaPalette getInstance() {
+    DarculaPalette palette = ourInstance;
+    if (palette == null) {
+      final int generation = watchDefaults();
+      palette = new DarculaPalette();
+      synchronized (DarculaPalette.class) {
+        if (generation == ourGeneration) {
+          ourInstance = palette;
+        }
+      }
+    }
+    return palette;
+  }
+
+  /**
+   * Drops the current palette, e.g. after changing colors the palette doesn't
+   * get notified of, such as those of a {@code UIDefaults} table that isn't
+   * installed yet.
+   */
+  public static synchronized void invalidate() {
+    ourGeneration++;
+    ourInstance = null;
+  }
+
+  private static synchronized int watchDefaults() {
+    if (!ourWatching) {
+      UIManager.addPropertyChangeListener(ourInvalidator);
+      UIManager.getDefaults().addPropertyChangeListener(ourInvalidator);
+      ourWatching = true;
+    }
+    final UIDefaults defaults = UIManager.getLookAndFeelDefaults();
+    if (defaults != ourWatchedDefaults) {
+      if (ourWatchedDefaults != null) {
+        ourWatchedDefaults.removePropertyChangeListener(ourInvalidator);
+      }
+      defaults.addPropertyChangeListener(ourInvalidator);
+      ourWatchedDefaults = defaults;
+    }
+    return ourGeneration;
+  }
+
+  private static Color checkBoxColor(String shortPropertyName, Color defaultValue) {
+    final Color color = UIManager.getColor("CheckBox.darcula." + shortPropertyName);
+    return color == null ? defaultValue : color;
+  }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bulenkov.darcula;
+
+import com.bulenkov.iconloader.IconLoader;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Runs the expensive parts of installing Darcula on background threads, see
+ * {@link DarculaLaf#prewarm(Executor)}.  Each phase is a task whose result
+ * {@link DarculaLaf#getDefaults()} consumes once; if the executor hasn't got
+ * to a task yet, the consumer runs it itself.  The icon and class phases only
+ * fill caches, so nothing consumes them; they stop being pending once they
+ * complete.  How long every phase ran and how long the consumer had to wait
+ * for it is recorded, see {@link #getReport()}.
+ */
+public final class DarculaPrewarm {
+  public enum Phase {
+    /** Lookup of the system font among the available font families. */
+    FONTS,
+    /** Parsing of {@code darcula.css}. */
+    STYLE_SHEET,
+    /** Parsing of the theme property files. */
+    THEME,
+    /** Decoding of the icons Darcula installs. */
+    ICONS,
+    /** Loading of the UI delegate and border classes. */
+    CLASSES
+  }
+
+  private static final Phase[] PHASES = Phase.values();
+
+  private static final FutureTask<?>[] ourTasks = new FutureTask<?>[PHASES.length];
+  private static final AtomicLongArray ourRunNanos = new AtomicLongArray(PHASES.length);
+  private static final AtomicLongArray ourWaitNanos = new AtomicLongArray(PHASES.length);
+  private static final AtomicLongArray ourFinished = new AtomicLongArray(PHASES.length);
+
+  private DarculaPrewarm() {
+  }
+
+  static synchronized void start(Executor executor) {
+    for (final Phase phase : PHASES) {
+      if (ourTasks[phase.ordinal()] != null) {
+        continue;
+      }
+      ourRunNanos.set(phase.ordinal(), 0);
+      ourWaitNanos.set(phase.ordinal(), 0);
+      ourFinished.set(phase.ordinal(), 0);
+      final FutureTask<Object> task = new FutureTask<Object>(createTask(phase)) {
+        @Override
+        protected void done() {
+          if (phase == Phase.ICONS || phase == Phase.CLASSES) {
+            release(phase, this);
+          }
+        }
+      };
+      ourTasks[phase.ordinal()] = task;
+      executor.execute(task);
+    }
+  }
+
+  private static synchronized void release(Phase phase, FutureTask<?> task) {
+    if (ourTasks[phase.ordinal()] == task) {
+      ourTasks[phase.ordinal()] = null;
+    }
+  }
+
+  private static Callable<Object> createTask(final Phase phase) {
+    return new Callable<Object>() {
+      @Override
+      public Object call() throws Exception {
+        final long start = System.nanoTime();
+        try {
+          return runPhase(phase);
+        }
+        finally {
+          ourRunNanos.set(phase.ordinal(), System.nanoTime() - start);
+          ourFinished.set(phase.ordinal(), 1);
+        }
+      }
+    };
+  }
+
+  private static Object runPhase(Phase phase) throws Exception {
+    switch (phase) {
+      case FONTS:
+        return DarculaLaf.getSystemFont();
+      case STYLE_SHEET:
+        DarculaStyleSheet.getRules().load();
+        return null;
+      case THEME:
+        return DarculaTheme.getInstance();
+      case ICONS:
+        for (int i = 1; i < DarculaLaf.ICONS.length; i += 2) {
+          // Sizing the icon decodes it into IconLoader's cache
+          IconLoader.getIcon(DarculaLaf.ICONS[i]).getIconWidth();
+        }
+        return null;
+      case CLASSES:
+        final ClassLoader loader = DarculaPrewarm.class.getClassLoader();
+        for (String className : DarculaTheme.getInstance().getClassNames()) {
+          try {
+            // Not initialized: some delegates read UIManager in static initializers
+            Class.forName(className, false, loader);
+          }
+          catch (ClassNotFoundException ignore) {
+          }
+        }
+        return null;
+    }
+    return null;
+  }
+
+  /**
+   * Returns whether {@code phase} was scheduled and not consumed yet.
+   */
+  static synchronized boolean isPending(Phase phase) {
+    return ourTasks[phase.ordinal()] != null;
+  }
+
+  /**
+   * Takes the result of {@code phase}, running it on the calling thread if
+   * the executor hasn't started it, or waiting for it if it is running.
+   * Returns {@code null} if the phase wasn't scheduled or failed.
+   */
+  static Object consume(Phase phase) {
+    final FutureTask<?> task;
+    synchronized (DarculaPrewarm.class) {
+      task = ourTasks[phase.ordinal()];
+      ourTasks[phase.ordinal()] = null;
+    }
+    if (task == null) {
+      return null;
+    }
+    final long start = System.nanoTime();
+    try {
+      task.run();
+      return task.get();
+    }
+    catch (Exception e) {
+      return null;
+    }
+    finally {
+      ourWaitNanos.addAndGet(phase.ordinal(), System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Returns how long {@code phase} ran, in nanoseconds, or {@code -1} if it
+   * hasn't finished.
+   */
+  public static long getRunNanos(Phase phase) {
+    return ourFinished.get(phase.ordinal()) != 0 ? ourRunNanos.get(phase.ordinal()) : -1;
+  }
+
+  /**
+   * Returns how long the consumer of {@code phase} was blocked on it, in
+   * nanoseconds.  This includes the time to run the phase on the consuming
+   * thread if the executor hadn't started it.
+   */
+  public static long getWaitNanos(Phase phase) {
+    return ourWaitNanos.get(phase.ordinal());
+  }
+
+  /**
+   * Returns one line per phase with its run time, the time the consumer
+   * waited for it and the share of the run time that was overlapped with
+   * other work.
+   */
+  public static String getReport() {
+    final StringBuilder report = new StringBuilder();
+    for (Phase phase : PHASES) {
+      final long run = getRunNanos(phase);
+      final long wait = getWaitNanos(phase);
+      report.append(phase.name().toLowerCase()).append(": ");
+      if (run < 0) {
+        report.append("not finished");
+      } else {
+        final long overlapped = Math.max(run - wait, 0);
+        report.append("ran ").append(toMillis(run)).append(" ms, waited ").append(toMillis(wait)).append(" ms (")
+          .append(run == 0 ? 100 : overlapped * 100 / run).append("% overlapped)");
+      }
+      report.append('\n');
+    }
+    return report.toString();
+  }
+
+  private static String toMillis(long nanos) {
+    return String.valueOf(nanos / 100000 / 10.0);
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bulenkov.darcula;
+
+import com.bulenkov.darcula.util.Registry;
+
+import javax.swing.text.Element;
+import javax.swing.text.Style;
+import javax.swing.text.html.HTML;
+import javax.swing.text.html.StyleSheet;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The style sheet Darcula installs for {@code HTMLEditorKit}.  Every install
+ * gets a new, empty sheet, so rules an application adds to it win over the
+ * theme's and are dropped with the look and feel.  The theme's rules live in
+ * a linked {@link Rules} sheet that all installs in the JVM share; it is only
+ * parsed on its first rule lookup, i.e. when the first HTML document is
+ * styled, unless {@link DarculaPrewarm} got to it first.
+ * <p>
+ * Set {@code darcula.css.fast} to use {@code darcula_fast.css}, which keeps
+ * only the selectors for the markup tool tips and labels typically use and
+ * drops the deprecated and deeply nested list rules, so fewer selectors are
+ * matched for every element.
+ */
+final class DarculaStyleSheet extends StyleSheet {
+  private static Rules ourFull;
+  private static Rules ourFast;
+
+  private DarculaStyleSheet(Rules rules) {
+    // A sheet's own rules take precedence over the ones of its linked sheets
+    addStyleSheet(rules);
+  }
+
+  static DarculaStyleSheet create() {
+    return new DarculaStyleSheet(getRules());
+  }
+
+  static synchronized Rules getRules() {
+    if (Registry.is("darcula.css.fast")) {
+      if (ourFast == null) {
+        ourFast = new Rules("darcula_fast.css");
+      }
+      return ourFast;
+    }
+    if (ourFull == null) {
+      ourFull = new Rules("darcula.css");
+    }
+    return ourFull;
+  }
+
+  /**
+   * The parsed rules of a Darcula css file.  Only queried through
+   * {@code getRule} by the sheets that link it, so it can parse itself on
+   * the first lookup.
+   */
+  static final class Rules extends StyleSheet {
+    private final String myResource;
+    private volatile boolean myLoaded;
+
+    private Rules(String resource) {
+      myResource = resource;
+    }
+
+    /**
+     * Parses the rules unless that has been done already.
+     */
+    void load() {
+      if (myLoaded) {
+        return;
+      }
+      synchronized (this) {
+        if (myLoaded) {
+          return;
+        }
+        try {
+          final Reader reader = new BufferedReader(
+            new InputStreamReader(DarculaStyleSheet.class.getResourceAsStream(myResource), StandardCharsets.UTF_8));
+          try {
+            loadRules(reader, null);
+          }
+          finally {
+            reader.close();
+          }
+        }
+        catch (IOException ignore) {
+        }
+        finally {
+          myLoaded = true;
+        }
+      }
+    }
+
+    @Override
+    public Style getRule(HTML.Tag t, Element e) {
+      load();
+      return super.getRule(t, e);
+    }
+
+    @Override
+    public Style getRule(String selector) {
+      load();
+      return super.getRule(selector);
+    }
+  }
+}
@@ -16,14 +16,17 @@
 
 package com.bulenkov.darcula;
 
-import javax.swing.border.Border;
+import com.bulenkov.darcula.util.SharedInsets;
+
+import javax.swing.border.AbstractBorder;
 import javax.swing.plaf.UIResource;
 import java.awt.*;
 
 /**
  * @author Konstantin Bulenkov
  */
-public class DarculaTableHeaderBorder implements Border, UIResource {
+public class DarculaTableHeaderBorder extends AbstractBorder implements UIResource {
+  private static final SharedInsets INSETS = new SharedInsets(3, 4, 3, 4);
 
   @Override
   public void paintBorder(Component c, Graphics g, int x, int y, int width, int height) {
@@ -31,7 +34,12 @@ public class DarculaTableHeaderBorder implements Border, UIResource {
 
   @Override
   public Insets getBorderInsets(Component c) {
-    return new Insets(3,4,3,4);
+    return INSETS.get();
+  }
+
+  @Override
+  public Insets getBorderInsets(Component c, Insets insets) {
+    return INSETS.fill(insets);
   }
 
   @Override
@@ -15,55 +15,188 @@
  */
 package com.bulenkov.darcula;
 
+import com.bulenkov.darcula.util.PaintProfiler;
 import com.bulenkov.iconloader.util.ColorUtil;
 import com.bulenkov.iconloader.util.GraphicsConfig;
 
 import javax.swing.*;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ListSelectionEvent;
+import javax.swing.event.TableColumnModelEvent;
+import javax.swing.event.TableColumnModelListener;
 import javax.swing.plaf.ComponentUI;
 import javax.swing.plaf.basic.BasicTableHeaderUI;
-import javax.swing.table.JTableHeader;
-import javax.swing.table.TableColumn;
+import javax.swing.table.TableColumnModel;
 import java.awt.*;
-import java.util.Enumeration;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
 
 /**
+ * Column separators are located through a cached prefix sum of the column
+ * widths, so only the separators inside the clip are visited.  The cache is
+ * rebuilt after any change to the column model.
+ *
  * @author Konstantin Bulenkov
  */
 public class DarculaTableHeaderUI extends BasicTableHeaderUI {
+  private int[] myColumnEnds = new int[0];
+  private boolean myColumnEndsValid;
+  private TableColumnModel myColumnModel;
+
+  private Color myBackground;
+  private Color myBorderColor;
+  private Color myLineColor;
+
+  private final TableColumnModelListener myColumnModelListener = new TableColumnModelListener() {
+    @Override
+    public void columnAdded(TableColumnModelEvent e) {
+      myColumnEndsValid = false;
+    }
+
+    @Override
+    public void columnRemoved(TableColumnModelEvent e) {
+      myColumnEndsValid = false;
+    }
+
+    @Override
+    public void columnMoved(TableColumnModelEvent e) {
+      myColumnEndsValid = false;
+    }
+
+    @Override
+    public void columnMarginChanged(ChangeEvent e) {
+      // Also fired when a column is resized
+      myColumnEndsValid = false;
+    }
+
+    @Override
+    public void columnSelectionChanged(ListSelectionEvent e) {
+    }
+  };
+
+  private final PropertyChangeListener myColumnModelChangeListener = new PropertyChangeListener() {
+    @Override
+    public void propertyChange(PropertyChangeEvent evt) {
+      if ("columnModel".equals(evt.getPropertyName())) {
+        setColumnModel(header.getColumnModel());
+      }
+    }
+  };
 
   @SuppressWarnings({"MethodOverridesStaticMethodOfSuperclass", "UnusedDeclaration"})
   public static ComponentUI createUI(JComponent c) {
     return new DarculaTableHeaderUI();
   }
 
+  @Override
+  protected void installListeners() {
+    super.installListeners();
+    header.addPropertyChangeListener(myColumnModelChangeListener);
+    setColumnModel(header.getColumnModel());
+  }
+
+  @Override
+  protected void uninstallListeners() {
+    header.removePropertyChangeListener(myColumnModelChangeListener);
+    setColumnModel(null);
+    super.uninstallListeners();
+  }
+
+  private void setColumnModel(TableColumnModel model) {
+    if (myColumnModel != null) {
+      myColumnModel.removeColumnModelListener(myColumnModelListener);
+    }
+    myColumnModel = model;
+    if (model != null) {
+      model.addColumnModelListener(myColumnModelListener);
+    }
+    myColumnEndsValid = false;
+  }
+
   @Override
   public void paint(Graphics g2, JComponent c) {
-    final Graphics2D g = (Graphics2D)g2;
-    final GraphicsConfig config = new GraphicsConfig(g);
-    final Color bg = c.getBackground();
-    g.setPaint(bg);//new GradientPaint(0, 0, ColorUtil.shift(bg, 1.4), 0, c.getHeight(), ColorUtil.shift(bg, 0.9)));
-    final int h = c.getHeight();
-    final int w = c.getWidth();
-    g.fillRect(0,0, w, h);
-    g.setPaint(ColorUtil.shift(bg, 0.75));
-    g.drawLine(0, h-1, w, h-1);
-    g.drawLine(w-1, 0, w-1, h-1);
-
-    final Enumeration<TableColumn> columns = ((JTableHeader)c).getColumnModel().getColumns();
-
-    final Color lineColor = ColorUtil.shift(bg, 0.7);
-    int offset = 0;
-    while (columns.hasMoreElements()) {
-      final TableColumn column = columns.nextElement();
-      if (columns.hasMoreElements() && column.getWidth() > 0) {
-        offset += column.getWidth();
-        g.setColor(lineColor);
-        g.drawLine(offset - 1, 1, offset - 1, h-3);
+    final int token = PaintProfiler.start();
+    try {
+      final Graphics2D g = (Graphics2D)g2;
+      final GraphicsConfig config = new GraphicsConfig(g);
+      final Color bg = c.getBackground();
+      updateColors(bg);
+      g.setPaint(bg);//new GradientPaint(0, 0, ColorUtil.shift(bg, 1.4), 0, c.getHeight(), ColorUtil.shift(bg, 0.9)));
+      final int h = c.getHeight();
+      final int w = c.getWidth();
+      g.fillRect(0,0, w, h);
+      g.setPaint(myBorderColor);
+      g.drawLine(0, h-1, w, h-1);
+      g.drawLine(w-1, 0, w-1, h-1);
+
+      final int[] ends = getColumnEnds();
+      final Rectangle clip = g.getClipBounds();
+      final int minX = clip == null ? 0 : clip.x;
+      final int maxX = clip == null ? w : clip.x + clip.width;
+
+      // The last column has no separator
+      g.setColor(myLineColor);
+      for (int i = findFirstEndAfter(ends, minX); i < ends.length - 1; i++) {
+        final int offset = ends[i];
+        if (offset - 1 >= maxX) break;
+        if (offset > (i == 0 ? 0 : ends[i - 1])) {
+          g.drawLine(offset - 1, 1, offset - 1, h-3);
+        }
       }
+
+      config.restore();
+
+      super.paint(g, c);
+    }
+    finally {
+      PaintProfiler.stop("DarculaTableHeaderUI.paint", c, token);
     }
+  }
 
-    config.restore();
+  private void updateColors(Color bg) {
+    if (!bg.equals(myBackground)) {
+      myBackground = bg;
+      myBorderColor = ColorUtil.shift(bg, 0.75);
+      myLineColor = ColorUtil.shift(bg, 0.7);
+    }
+  }
+
+  /**
+   * Returns the right edge of every column, i.e. {@code ends[i]} is the sum of
+   * the widths of columns {@code 0..i}.
+   */
+  private int[] getColumnEnds() {
+    if (!myColumnEndsValid) {
+      final TableColumnModel model = header.getColumnModel();
+      final int count = model.getColumnCount();
+      if (myColumnEnds.length != count) {
+        myColumnEnds = new int[count];
+      }
+      int offset = 0;
+      for (int i = 0; i < count; i++) {
+        offset += Math.max(model.getColumn(i).getWidth(), 0);
+        myColumnEnds[i] = offset;
+      }
+      myColumnEndsValid = true;
+    }
+    return myColumnEnds;
+  }
 
-    super.paint(g, c);
+  /**
+   * Returns the index of the first column whose separator ({@code end - 1}) is
+   * at or after {@code x}.
+   */
+  private static int findFirstEndAfter(int[] ends, int x) {
+    int low = 0;
+    int high = ends.length;
+    while (low < high) {
+      final int mid = (low + high) >>> 1;
+      if (ends[mid] - 1 < x) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
   }
 }
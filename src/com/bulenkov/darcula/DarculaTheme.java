@@ -0,0 +1,217 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bulenkov.darcula;
+
+import com.bulenkov.darcula.util.Registry;
+import com.bulenkov.iconloader.util.ColorUtil;
+import com.bulenkov.iconloader.util.StringUtil;
+import com.bulenkov.iconloader.util.SystemInfo;
+
+import javax.swing.*;
+import javax.swing.plaf.ColorUIResource;
+import javax.swing.plaf.InsetsUIResource;
+import java.awt.*;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * {@code darcula.properties} and the OS specific properties, parsed once per
+ * JVM into typed values.  Colors, numbers and booleans are shared; insets are
+ * copied for every {@link UIDefaults} table because they are mutable, and
+ * borders are installed as lazy values, so a border class is only loaded and
+ * instantiated when a table first hands it out.
+ * <p>
+ * Set {@code darcula.theme.noSnapshot} to re-read the property files on every
+ * {@link #getInstance()} call, e.g. while editing them.
+ */
+final class DarculaTheme {
+  private static final String GLOBAL_PREFIX = "darcula.";
+
+  private static DarculaTheme ourInstance;
+
+  private final Object[] myKeysAndValues;
+  // Values of the darcula.* properties by the key suffix they apply to
+  private final Map<String, Object> myGlobals;
+
+  private DarculaTheme(Properties properties) {
+    final Set<String> keys = properties.stringPropertyNames();
+    myKeysAndValues = new Object[keys.size() * 2];
+    myGlobals = new HashMap<String, Object>();
+    int i = 0;
+    for (String key : keys) {
+      final Object value = parseValue(key, properties.getProperty(key));
+      myKeysAndValues[i++] = key;
+      myKeysAndValues[i++] = value;
+      if (key.startsWith(GLOBAL_PREFIX)) {
+        myGlobals.put(key.substring(GLOBAL_PREFIX.length()), value);
+      }
+    }
+  }
+
+  static synchronized DarculaTheme getInstance() {
+    if (ourInstance == null || Registry.is("darcula.theme.noSnapshot")) {
+      ourInstance = new DarculaTheme(load());
+    }
+    return ourInstance;
+  }
+
+  private static Properties load() {
+    final Properties properties = new Properties();
+    final String osSuffix = SystemInfo.isMac ? "mac" : SystemInfo.isWindows ? "windows" : "linux";
+    load(properties, "darcula.properties");
+    load(properties, "darcula_" + osSuffix + ".properties");
+    return properties;
+  }
+
+  private static void load(Properties properties, String name) {
+    final InputStream stream = DarculaTheme.class.getResourceAsStream(name);
+    if (stream == null) {
+      DarculaLaf.log(new IOException("Missing resource " + name));
+      return;
+    }
+    try {
+      properties.load(stream);
+    }
+    catch (IOException e) {
+      DarculaLaf.log(e);
+    }
+    finally {
+      try {
+        stream.close();
+      }
+      catch (IOException ignore) {
+      }
+    }
+  }
+
+  /**
+   * Returns the names of the UI delegate and border classes this theme
+   * refers to.
+   */
+  List<String> getClassNames() {
+    final List<String> names = new ArrayList<String>();
+    for (int i = 0; i < myKeysAndValues.length; i += 2) {
+      final Object value = myKeysAndValues[i + 1];
+      if (value instanceof LazyInstance) {
+        names.add(((LazyInstance)value).myClassName);
+      } else if (value instanceof String && ((String)myKeysAndValues[i]).endsWith("UI")) {
+        names.add((String)value);
+      }
+    }
+    return names;
+  }
+
+  /**
+   * Overrides every key of {@code defaults} whose last segment matches a
+   * {@code darcula.*} property, then installs all properties.
+   */
+  void apply(UIDefaults defaults) {
+    if (!myGlobals.isEmpty()) {
+      for (Object key : defaults.keySet()) {
+        if (key instanceof String) {
+          final String s = (String)key;
+          final int dot = s.lastIndexOf('.');
+          if (dot >= 0) {
+            final String darculaKey = s.substring(dot + 1);
+            if (myGlobals.containsKey(darculaKey)) {
+              defaults.put(key, materialize(myGlobals.get(darculaKey)));
+            }
+          }
+        }
+      }
+    }
+
+    final Object[] keysAndValues = new Object[myKeysAndValues.length];
+    for (int i = 0; i < keysAndValues.length; i += 2) {
+      keysAndValues[i] = myKeysAndValues[i];
+      keysAndValues[i + 1] = materialize(myKeysAndValues[i + 1]);
+    }
+    defaults.putDefaults(keysAndValues);
+  }
+
+  private static Object materialize(Object value) {
+    if (value instanceof Insets) {
+      final Insets insets = (Insets)value;
+      return new InsetsUIResource(insets.top, insets.left, insets.bottom, insets.right);
+    }
+    return value;
+  }
+
+  private static Object parseValue(String key, String value) {
+    if ("null".equals(value)) {
+      return null;
+    }
+    if (key.endsWith(".margin") || key.endsWith("Insets")) {
+      final List<String> numbers = StringUtil.split(value, ",");
+      return new InsetsUIResource(Integer.parseInt(numbers.get(0)),
+          Integer.parseInt(numbers.get(1)),
+          Integer.parseInt(numbers.get(2)),
+          Integer.parseInt(numbers.get(3)));
+    } else if (key.endsWith(".border") || key.endsWith("Border")) {
+      return new LazyInstance(value);
+    } else {
+      final Color color = ColorUtil.fromHex(value, null);
+      final Integer invVal = getInteger(value);
+      final Boolean boolVal = "true".equals(value) ? Boolean.TRUE : "false".equals(value) ? Boolean.FALSE : null;
+      if (color != null) {
+        return  new ColorUIResource(color);
+      } else if (invVal != null) {
+        return invVal;
+      } else if (boolVal != null) {
+        return boolVal;
+      }
+    }
+    return value;
+  }
+
+  private static Integer getInteger(String value) {
+    try {
+      return Integer.parseInt(value);
+    }
+    catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Creates an instance of a class on first lookup, falling back to the class
+   * name if it cannot be instantiated.  Stateless, so one instance is shared
+   * by all tables; each table keeps its own result.
+   */
+  private static final class LazyInstance implements UIDefaults.LazyValue {
+    private final String myClassName;
+
+    LazyInstance(String className) {
+      myClassName = className;
+    }
+
+    @Override
+    public Object createValue(UIDefaults table) {
+      try {
+        return Class.forName(myClassName).newInstance();
+      } catch (Exception e) {
+        DarculaLaf.log(e);
+        return myClassName;
+      }
+    }
+  }
+}
@@ -15,6 +15,7 @@
  */
 package com.bulenkov.darcula;
 
+import com.bulenkov.darcula.util.RenderingProfile;
 import com.bulenkov.iconloader.util.*;
 
 import javax.swing.*;
@@ -30,16 +31,25 @@ public class DarculaUIUtil {
   public static final int MAC_COMBO_BORDER_V_OFFSET = SystemInfo.isMacOSLion ? 1 : 0;
   private static Cursor INVERTED_TEXT_CURSOR;
 
+  private static final Color FOCUS_GLOW = new DoubleColor(new Color(35, 121, 212), new Color(96, 175, 255));
+
+  private static final int RING_RECT = 0;
+  private static final int RING_OVAL = 1;
+  private static final int RING_SEARCH = 2;
+
+  // The five strokes of a focus ring, outermost first, relative to the
+  // bounds grown by 3 pixels on each side
+  private static final int[] RING_OFFSETS = {2, 1, 0, 3, 4};
+  private static final int[] RING_SHRINK = {5, 3, 1, 7, 9};
+  private static final int[] RING_ARCS = {5, 7, 9, 0, 0};
+  private static final int[] RING_ALPHAS = {180, 120, 70, 100, 50};
+
   public static void paintFocusRing(Graphics g, int x, int y, int width, int height) {
-    paintFocusRing((Graphics2D) g, getGlow(), new Rectangle(x, y, width, height));
+    paintFocusRing((Graphics2D)g, FOCUS_GLOW, x, y, width, height, RING_RECT);
   }
 
   public static void paintFocusOval(Graphics g, int x, int y, int width, int height) {
-    paintFocusRing((Graphics2D) g, getGlow(), new Rectangle(x, y, width, height), true);
-  }
-
-  private static Color getGlow() {
-    return new DoubleColor(new Color(35, 121, 212), new Color(96, 175, 255));
+    paintFocusRing((Graphics2D)g, FOCUS_GLOW, x, y, width, height, RING_OVAL);
   }
 
   public static void paintFocusRing(Graphics2D g2d, Color ringColor, Rectangle bounds) {
@@ -47,91 +57,73 @@ public class DarculaUIUtil {
   }
 
   public static void paintFocusRing(Graphics2D g, Color ringColor, Rectangle bounds, boolean oval) {
-    int correction = UIUtil.isUnderDarcula() ? 50 : 0;
-    final Color[] colors = new Color[]{
-        ColorUtil.toAlpha(ringColor, 180 - correction),
-        ColorUtil.toAlpha(ringColor, 120 - correction),
-        ColorUtil.toAlpha(ringColor, 70  - correction),
-        ColorUtil.toAlpha(ringColor, 100 - correction),
-        ColorUtil.toAlpha(ringColor, 50  - correction)
-    };
-
-    final Object oldAntialiasingValue = g.getRenderingHint(RenderingHints.KEY_ANTIALIASING);
-    final Object oldStrokeControlValue = g.getRenderingHint(RenderingHints.KEY_STROKE_CONTROL);
-
-    g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-    g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, !oval &&
-        USE_QUARTZ ? RenderingHints.VALUE_STROKE_PURE : RenderingHints.VALUE_STROKE_NORMALIZE);
-
-
-    final Rectangle r = new Rectangle(bounds.x - 3, bounds.y - 3, bounds.width + 6, bounds.height + 6);
-
-    g.setColor(colors[0]);
-    drawRectOrOval(g, oval, 5, r.x + 2, r.y + 2, r.width - 5, r.height - 5);
-
-    g.setColor(colors[1]);
-    drawRectOrOval(g, oval, 7, r.x + 1, r.y + 1, r.width - 3, r.height - 3);
-
-    g.setColor(colors[2]);
-    drawRectOrOval(g, oval, 9, r.x, r.y, r.width - 1, r.height - 1);
-
-    g.setColor(colors[3]);
-    drawRectOrOval(g, oval, 0, r.x + 3, r.y + 3, r.width - 7, r.height - 7);
+    paintFocusRing(g, ringColor, bounds.x, bounds.y, bounds.width, bounds.height, oval ? RING_OVAL : RING_RECT);
+  }
 
-    g.setColor(colors[4]);
-    drawRectOrOval(g, oval, 0, r.x + 4, r.y + 4, r.width - 9, r.height - 9);
+  public static void paintSearchFocusRing(Graphics2D g, Rectangle bounds) {
+    paintFocusRing(g, FOCUS_GLOW, bounds.x, bounds.y, bounds.width, bounds.height, RING_SEARCH);
+  }
 
-    // restore rendering hints
-    g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, oldAntialiasingValue);
-    g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, oldStrokeControlValue);
+  private static void paintFocusRing(Graphics2D g, Color ringColor, int x, int y, int width, int height, int shape) {
+    if (RenderingProfile.isLowBandwidth()) {
+      paintFlatFocusRing(g, ringColor, x, y, width, height, shape);
+      return;
+    }
+    int correction = UIUtil.isUnderDarcula() ? 50 : 0;
+    doPaintFocusRing(g, ringColor, correction, x, y, width, height, shape);
   }
 
-  private static void drawRectOrOval(Graphics2D g, boolean oval, int arc, int x, int y, int width, int height) {
-    if (oval) {
-      g.drawOval(x, y, width, height);
+  /**
+   * Draws only the outermost stroke of the ring, opaque and aliased, for
+   * low-bandwidth sessions.
+   */
+  private static void paintFlatFocusRing(Graphics2D g, Color ringColor, int x, int y, int width, int height, int shape) {
+    final Object oldAntialiasingValue = g.getRenderingHint(RenderingHints.KEY_ANTIALIASING);
+    g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+    g.setColor(ringColor);
+    final int rx = x - 3 + RING_OFFSETS[0];
+    final int ry = y - 3 + RING_OFFSETS[0];
+    final int w = width + 6 - RING_SHRINK[0];
+    final int h = height + 6 - RING_SHRINK[0];
+    if (shape == RING_OVAL) {
+      g.drawOval(rx, ry, w, h);
+    } else if (shape == RING_SEARCH) {
+      g.drawRoundRect(rx, ry, w, h, h, h);
     } else {
-      if (arc == 0) {
-        g.drawRect(x, y, width, height);
-      } else {
-        g.drawRoundRect(x, y, width, height, arc, arc);
-      }
+      g.drawRoundRect(rx, ry, w, h, RING_ARCS[0], RING_ARCS[0]);
     }
+    g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, oldAntialiasingValue);
   }
 
-  public static void paintSearchFocusRing(Graphics2D g, Rectangle bounds) {
-    int correction = UIUtil.isUnderDarcula() ? 50 : 0;
-    final Color[] colors = new Color[]{
-      ColorUtil.toAlpha(getGlow(), 180 - correction),
-      ColorUtil.toAlpha(getGlow(), 120 - correction),
-      ColorUtil.toAlpha(getGlow(), 70  - correction),
-      ColorUtil.toAlpha(getGlow(), 100 - correction),
-      ColorUtil.toAlpha(getGlow(), 50  - correction)
-    };
-
+  private static void doPaintFocusRing(Graphics2D g, Color ringColor, int correction,
+                                       int x, int y, int width, int height, int shape) {
     final Object oldAntialiasingValue = g.getRenderingHint(RenderingHints.KEY_ANTIALIASING);
     final Object oldStrokeControlValue = g.getRenderingHint(RenderingHints.KEY_STROKE_CONTROL);
 
     g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-    g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, USE_QUARTZ ? RenderingHints.VALUE_STROKE_PURE : RenderingHints.VALUE_STROKE_NORMALIZE);
-
-
-    final Rectangle r = new Rectangle(bounds.x - 3, bounds.y - 3, bounds.width + 6, bounds.height + 6);
-
-    g.setColor(colors[0]);
-    g.drawRoundRect(r.x + 2, r.y + 2, r.width - 5, r.height - 5, r.height - 5, r.height - 5);
-
-    g.setColor(colors[1]);
-    g.drawRoundRect(r.x + 1, r.y + 1, r.width - 3, r.height - 3, r.height - 3, r.height - 3);
-
-    g.setColor(colors[2]);
-    g.drawRoundRect(r.x, r.y, r.width - 1, r.height - 1, r.height - 1, r.height - 1);
-
-
-    g.setColor(colors[3]);
-    g.drawRoundRect(r.x+3, r.y+3, r.width - 7, r.height - 7, r.height - 7, r.height - 7);
+    g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, shape != RING_OVAL &&
+        USE_QUARTZ ? RenderingHints.VALUE_STROKE_PURE : RenderingHints.VALUE_STROKE_NORMALIZE);
 
-    g.setColor(colors[4]);
-    g.drawRoundRect(r.x+4, r.y+4, r.width - 9, r.height - 9, r.height - 9, r.height - 9);
+    final int rx = x - 3;
+    final int ry = y - 3;
+    final int rw = width + 6;
+    final int rh = height + 6;
+
+    for (int i = 0; i < RING_ALPHAS.length; i++) {
+      final int offset = RING_OFFSETS[i];
+      final int w = rw - RING_SHRINK[i];
+      final int h = rh - RING_SHRINK[i];
+      g.setColor(ColorUtil.toAlpha(ringColor, RING_ALPHAS[i] - correction));
+      if (shape == RING_OVAL) {
+        g.drawOval(rx + offset, ry + offset, w, h);
+      } else if (shape == RING_SEARCH) {
+        g.drawRoundRect(rx + offset, ry + offset, w, h, h, h);
+      } else if (RING_ARCS[i] == 0) {
+        g.drawRect(rx + offset, ry + offset, w, h);
+      } else {
+        g.drawRoundRect(rx + offset, ry + offset, w, h, RING_ARCS[i], RING_ARCS[i]);
+      }
+    }
 
     // restore rendering hints
     g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, oldAntialiasingValue);
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bulenkov.darcula.ui;
+
+import com.bulenkov.darcula.util.NinePatch;
+import com.bulenkov.darcula.util.Registry;
+import com.bulenkov.darcula.util.RenderingProfile;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cached rounded rectangles used for button backgrounds and borders.  Each
+ * (color, arc, fill/outline, scale) combination is rendered once into a
+ * {@link NinePatch}, so repainting a button of any size is a handful of
+ * image blits.  Hit, miss and bypass counts are exposed for diagnostics.
+ */
+public final class DarculaButtonChrome {
+  private static final boolean ENABLED = !Registry.is("darcula.buttonChrome.noCache");
+
+  // Covers the largest arc used by buttons (5) plus the half-pixel of an unnormalized stroke
+  private static final int CORNER = 4;
+  private static final int PADDING = 1;
+  private static final int CACHE_SIZE = 32;
+
+  private static final AtomicLong ourHits = new AtomicLong();
+  private static final AtomicLong ourMisses = new AtomicLong();
+  private static final AtomicLong ourBypasses = new AtomicLong();
+
+  private static final Map<Long, NinePatch> ourPatches = new LinkedHashMap<Long, NinePatch>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Long, NinePatch> eldest) {
+      return size() > CACHE_SIZE;
+    }
+  };
+
+  private DarculaButtonChrome() {
+  }
+
+  /**
+   * Equivalent to an antialiased {@code g.fillRoundRect(x, y, width, height, arc, arc)}
+   * with normalized strokes.
+   */
+  public static void fillRoundRect(Graphics2D g, Color color, int x, int y, int width, int height, int arc) {
+    paint(g, color, x, y, width, height, arc, true);
+  }
+
+  /**
+   * Equivalent to an antialiased {@code g.drawRoundRect(x, y, width, height, arc, arc)}
+   * with the default stroke control.
+   */
+  public static void drawRoundRect(Graphics2D g, Color color, int x, int y, int width, int height, int arc) {
+    paint(g, color, x, y, width, height, arc, false);
+  }
+
+  /**
+   * Returns how many paints were served from the cache.
+   */
+  public static long getHitCount() {
+    return ourHits.get();
+  }
+
+  /**
+   * Returns how many paints had to render a new patch.
+   */
+  public static long getMissCount() {
+    return ourMisses.get();
+  }
+
+  /**
+   * Returns how many paints bypassed the cache, e.g. because the graphics has
+   * a fractional scale or the shape is too small to be sliced.
+   */
+  public static long getBypassCount() {
+    return ourBypasses.get();
+  }
+
+  public static void resetStatistics() {
+    ourHits.set(0);
+    ourMisses.set(0);
+    ourBypasses.set(0);
+  }
+
+  public static void clear() {
+    synchronized (ourPatches) {
+      ourPatches.clear();
+    }
+  }
+
+  private static void paint(Graphics2D g, Color color, int x, int y, int width, int height, int arc, boolean fill) {
+    if (color == null) {
+      color = g.getColor();
+    }
+    final AffineTransform at = g.getTransform();
+    // Cached chrome is antialiased, so low-bandwidth sessions paint it directly
+    final int scale = ENABLED && !RenderingProfile.isLowBandwidth() ? NinePatch.getDeviceScale(at) : 0;
+    final int extra = fill ? 0 : 1;
+    final int px = x - PADDING;
+    final int py = y - PADDING;
+    final int pw = width + extra + 2 * PADDING;
+    final int ph = height + extra + 2 * PADDING;
+    if (scale == 0 || scale > 16 || arc > 2 * CORNER - 2 || pw < 2 * (CORNER + PADDING) || ph < 2 * (CORNER + PADDING)) {
+      ourBypasses.incrementAndGet();
+      paintDirectly(g, color, x, y, width, height, arc, fill, RenderingProfile.getAntialiasing(null));
+      return;
+    }
+
+    final long key = (color.getRGB() & 0xFFFFFFFFL)
+                     | (long)arc << 32
+                     | (fill ? 1L : 0L) << 40
+                     | (long)scale << 41;
+    NinePatch patch;
+    synchronized (ourPatches) {
+      patch = ourPatches.get(key);
+      if (patch == null) {
+        ourMisses.incrementAndGet();
+        patch = createPatch(color, arc, fill, scale);
+        ourPatches.put(key, patch);
+      } else {
+        ourHits.incrementAndGet();
+      }
+    }
+    patch.paint(g, at, scale, px, py, pw, ph);
+  }
+
+  private static NinePatch createPatch(Color color, int arc, boolean fill, int scale) {
+    final int size = 2 * CORNER + 1;
+    final int imageSize = (size + (fill ? 0 : 1) + 2 * PADDING) * scale;
+    final BufferedImage image = NinePatch.createImage(imageSize, imageSize);
+    final Graphics2D g = image.createGraphics();
+    g.scale(scale, scale);
+    // Always antialiased: the patch is reused after a live resize
+    paintDirectly(g, color, PADDING, PADDING, size, size, arc, fill, RenderingHints.VALUE_ANTIALIAS_ON);
+    g.dispose();
+
+    final int slice = (CORNER + PADDING) * scale;
+    return new NinePatch(image, slice, slice, slice, slice);
+  }
+
+  private static void paintDirectly(Graphics2D g, Color color, int x, int y, int width, int height, int arc, boolean fill,
+                                    Object antialiasing) {
+    final Object oldAntialiasing = g.getRenderingHint(RenderingHints.KEY_ANTIALIASING);
+    final Object oldStrokeControl = g.getRenderingHint(RenderingHints.KEY_STROKE_CONTROL);
+    g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, antialiasing);
+    g.setColor(color);
+    if (fill) {
+      g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_NORMALIZE);
+      g.fillRoundRect(x, y, width, height, arc, arc);
+    } else {
+      g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_DEFAULT);
+      g.drawRoundRect(x, y, width, height, arc, arc);
+    }
+    g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, oldAntialiasing);
+    g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, oldStrokeControl);
+  }
+}
@@ -15,60 +15,59 @@
  */
 package com.bulenkov.darcula.ui;
 
+import com.bulenkov.darcula.DarculaPalette;
 import com.bulenkov.darcula.DarculaUIUtil;
-import com.bulenkov.iconloader.util.GraphicsConfig;
+import com.bulenkov.darcula.util.SharedInsets;
 
 import javax.swing.*;
-import javax.swing.border.Border;
-import javax.swing.plaf.InsetsUIResource;
+import javax.swing.border.AbstractBorder;
 import javax.swing.plaf.UIResource;
 import java.awt.*;
 
 /**
  * @author Konstantin Bulenkov
  */
-public class DarculaButtonPainter implements Border, UIResource {
+public class DarculaButtonPainter extends AbstractBorder implements UIResource {
   private static final int myOffset = 4;
+  private static final SharedInsets INSETS = new SharedInsets(8, 16, 8, 14);
+  private static final SharedInsets SQUARE_INSETS = new SharedInsets(2, 0, 2, 0);
 
   @Override
   public void paintBorder(Component c, Graphics g, int x, int y, int width, int height) {
     final Graphics2D g2d = (Graphics2D)g;
-    final Insets ins = getBorderInsets(c);
-
-    final int yOff = (ins.top + ins.bottom) / 4;
+    final int yOff = getVerticalOffset(c);
     final boolean square = DarculaButtonUI.isSquare(c);
     int offset = square ? 1 : getOffset();
     if (c.hasFocus()) {
       DarculaUIUtil.paintFocusRing(g2d, offset, yOff, width - 2 * offset, height - 2 * yOff);
     } else {
-
-        Color borderColor;
-        if (c instanceof JButton && ((JButton)c).isDefaultButton()) {
-            borderColor = UIManager.getColor("Button.darcula.borderColor.defaultButton");
-        }
-        else {
-            borderColor = UIManager.getColor("Button.darcula.borderColor");
-        }
-
-      final GraphicsConfig config = new GraphicsConfig(g);
-      g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-      g2d.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_DEFAULT);
-      g2d.setColor(borderColor);
-      g.drawRoundRect(x + offset, y + yOff, width - 2 * offset, height - 2*yOff, square ? 3 : 5, square ? 3 : 5);
-
-      config.restore();
+      final DarculaPalette palette = DarculaPalette.getInstance();
+      final Color borderColor = c instanceof JButton && ((JButton)c).isDefaultButton() ? palette.buttonDefaultBorder : palette.buttonBorder;
+      DarculaButtonChrome.drawRoundRect(g2d, borderColor, x + offset, y + yOff, width - 2 * offset, height - 2 * yOff,
+                                        square ? 3 : 5);
     }
   }
 
+  /**
+   * Returns the vertical gap between the component bounds and the painted
+   * button shape; a quarter of the vertical insets.
+   */
+  protected int getVerticalOffset(Component c) {
+    final Insets ins = getBorderInsets(c);
+    return (ins.top + ins.bottom) / 4;
+  }
+
   @Override
   public Insets getBorderInsets(Component c) {
-    if (DarculaButtonUI.isSquare(c)) {
-      return new InsetsUIResource(2, 0, 2, 0);
-    }
 //    if (c.getParent() instanceof JToolBar) {
 //      return new InsetsUIResource(6, 6, 6, 6);
 //    }
-    return new InsetsUIResource(8, 16, 8, 14);
+    return (DarculaButtonUI.isSquare(c) ? SQUARE_INSETS : INSETS).get();
+  }
+
+  @Override
+  public Insets getBorderInsets(Component c, Insets insets) {
+    return (DarculaButtonUI.isSquare(c) ? SQUARE_INSETS : INSETS).fill(insets);
   }
 
   protected int getOffset() {
@@ -15,9 +15,9 @@
  */
 package com.bulenkov.darcula.ui;
 
+import com.bulenkov.darcula.DarculaPalette;
+import com.bulenkov.darcula.util.PaintProfiler;
 import com.bulenkov.iconloader.util.SystemInfo;
-import com.bulenkov.iconloader.util.GraphicsConfig;
-import com.bulenkov.iconloader.util.GraphicsUtil;
 import sun.swing.SwingUtilities2;
 
 import javax.swing.*;
@@ -31,9 +31,20 @@ import java.awt.*;
  * @author Konstantin Bulenkov
  */
 public class DarculaButtonUI extends BasicButtonUI {
+  // Keeps no per-button state, so like BasicButtonUI one instance serves all buttons
+  private static final DarculaButtonUI ourInstance = new DarculaButtonUI();
+
   @SuppressWarnings("MethodOverridesStaticMethodOfSuperclass")
   public static ComponentUI createUI(JComponent c) {
-    return new DarculaButtonUI();
+    return ourInstance;
+  }
+
+  private static int getVerticalOffset(Component c, Border border) {
+    if (border instanceof DarculaButtonPainter) {
+      return ((DarculaButtonPainter)border).getVerticalOffset(c);
+    }
+    final Insets ins = border.getBorderInsets(c);
+    return (ins.top + ins.bottom) / 4;
   }
 
   public static boolean isSquare(Component c) {
@@ -42,48 +53,46 @@ public class DarculaButtonUI extends BasicButtonUI {
 
   @Override
   public void paint(Graphics g, JComponent c) {
+    final int token = PaintProfiler.start();
+    try {
+      AbstractButton b = (AbstractButton)c;
+      Container parent = b.getParent();
+      Color prevColor = g.getColor();
 
-    AbstractButton b = (AbstractButton)c;
-    Container parent = b.getParent();
-    Color prevColor = g.getColor();
-
-    if (parent instanceof JToolBar) {
-      if (b.getModel().isPressed()) {
-        g.setColor(UIManager.getColor("ToolBar.Button.armedBackground"));
-        g.fillRect(0, 0, c.getWidth(), c.getHeight());
-        g.setColor(prevColor);
-      }
-      else if (b.getModel().isRollover() || b.isSelected()) {
-        g.setColor(UIManager.getColor("ToolBar.Button.rolloverBackground"));
-        g.fillRect(0, 0, c.getWidth(), c.getHeight());
-        g.setColor(prevColor);
+      if (parent instanceof JToolBar) {
+        if (b.getModel().isPressed()) {
+          g.setColor(DarculaPalette.getInstance().toolBarButtonArmedBackground);
+          g.fillRect(0, 0, c.getWidth(), c.getHeight());
+          g.setColor(prevColor);
+        }
+        else if (b.getModel().isRollover() || b.isSelected()) {
+          g.setColor(DarculaPalette.getInstance().toolBarButtonRolloverBackground);
+          g.fillRect(0, 0, c.getWidth(), c.getHeight());
+          g.setColor(prevColor);
+        }
       }
-    }
 
-    else {
-      final AbstractButton button = (AbstractButton) c;
-      final Border border = c.getBorder();
-      final GraphicsConfig config = GraphicsUtil.setupAAPainting(g);
-      final boolean square = isSquare(c);
-      if (c.isEnabled() && border != null && button.isContentAreaFilled() && !(c instanceof JToggleButton)) {
-        final Insets ins = border.getBorderInsets(c);
-        final int yOff = (ins.top + ins.bottom) / 4;
-        if (!square) {
-
-            Color bg;
-            if (c instanceof JButton && ((JButton)c).isDefaultButton()) {
-                bg = UIManager.getColor("Button.darcula.defaultButtonBackground");
-            }
-            else {
-                bg = UIManager.getColor("Button.darcula.background");
-            }
+      else {
+        final AbstractButton button = (AbstractButton) c;
+        final Border border = c.getBorder();
+        final boolean square = isSquare(c);
+        if (c.isEnabled() && border != null && button.isContentAreaFilled() && !(c instanceof JToggleButton)) {
+          final int yOff = getVerticalOffset(c, border);
+          Color bg = g.getColor();
+          if (!square) {
+            final DarculaPalette palette = DarculaPalette.getInstance();
+            bg = c instanceof JButton && ((JButton)c).isDefaultButton() ? palette.buttonDefaultBackground : palette.buttonBackground;
             g.setColor(bg);
+          }
+          DarculaButtonChrome.fillRoundRect((Graphics2D)g, bg, square ? 2 : 4, yOff, c.getWidth() - 2 * 4, c.getHeight() - 2 * yOff,
+                                            square ? 3 : 5);
         }
-        g.fillRoundRect(square ? 2 : 4, yOff, c.getWidth() - 2 * 4, c.getHeight() - 2 * yOff, square ? 3 : 5, square ? 3 : 5);
       }
-      config.restore();
+      super.paint(g, c);
+    }
+    finally {
+      PaintProfiler.stop("DarculaButtonUI.paint", c, token);
     }
-    super.paint(g, c);
   }
 
   protected void paintText(Graphics g, JComponent c, Rectangle textRect, String text) {
@@ -91,9 +100,9 @@ public class DarculaButtonUI extends BasicButtonUI {
     final ButtonModel model = button.getModel();
     Color fg = button.getForeground();
     if (fg instanceof UIResource && button instanceof JButton && ((JButton)button).isDefaultButton()) {
-      final Color selectedFg = UIManager.getColor("Button.darcula.selectedButtonForeground");
-      if (selectedFg != null) {
-        fg = selectedFg;
+      final Color selectedForeground = DarculaPalette.getInstance().buttonSelectedForeground;
+      if (selectedForeground != null) {
+        fg = selectedForeground;
       }
     }
     g.setColor(fg);
@@ -112,7 +121,7 @@ public class DarculaButtonUI extends BasicButtonUI {
 //      SwingUtilities2.drawStringUnderlineCharAt(c, g, text, -1,
 //                                                textRect.x + getTextShiftOffset()+1,
 //                                                textRect.y + metrics.getAscent() + getTextShiftOffset()+1);
-      g.setColor(UIManager.getColor("Button.disabledText"));
+      g.setColor(DarculaPalette.getInstance().buttonDisabledText);
       SwingUtilities2.drawStringUnderlineCharAt(c, g, text, -1,
                                                 textRect.x + getTextShiftOffset(),
                                                 textRect.y + metrics.getAscent() + getTextShiftOffset());
@@ -15,27 +15,38 @@
  */
 package com.bulenkov.darcula.ui;
 
+import com.bulenkov.darcula.util.SharedInsets;
 import com.bulenkov.iconloader.util.SystemInfo;
 import com.bulenkov.iconloader.util.UIUtil;
 
 import javax.swing.*;
-import javax.swing.border.Border;
-import javax.swing.plaf.InsetsUIResource;
+import javax.swing.border.AbstractBorder;
 import javax.swing.plaf.UIResource;
 import java.awt.*;
 
 /**
  * @author Konstantin Bulenkov
  */
-public class DarculaCheckBoxBorder implements Border, UIResource {
+public class DarculaCheckBoxBorder extends AbstractBorder implements UIResource {
+  private static final SharedInsets INSETS = new SharedInsets(2, 2, 2, 2);
+  private static final SharedInsets NO_INSETS = new SharedInsets(0, 0, 0, 0);
+
   @Override
   public void paintBorder(Component c, Graphics g, int x, int y, int width, int height) {
   }
 
   @Override
   public Insets getBorderInsets(Component c) {
-    final int a = SystemInfo.isMac || UIUtil.getParentOfType(CellRendererPane.class, c) != null ? 0 : 2;
-    return  new InsetsUIResource(a, a, a, a);
+    return getInsets(c).get();
+  }
+
+  @Override
+  public Insets getBorderInsets(Component c, Insets insets) {
+    return getInsets(c).fill(insets);
+  }
+
+  private static SharedInsets getInsets(Component c) {
+    return SystemInfo.isMac || UIUtil.getParentOfType(CellRendererPane.class, c) != null ? NO_INSETS : INSETS;
   }
 
   @Override
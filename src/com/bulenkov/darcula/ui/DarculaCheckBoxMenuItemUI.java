@@ -16,10 +16,10 @@
 
 package com.bulenkov.darcula.ui;
 
+import com.bulenkov.darcula.DarculaPalette;
 import com.bulenkov.darcula.DarculaUIUtil;
+import com.bulenkov.darcula.util.RenderingProfile;
 import com.bulenkov.iconloader.util.GraphicsConfig;
-import com.bulenkov.iconloader.util.GraphicsUtil;
-import com.bulenkov.iconloader.util.Gray;
 import com.bulenkov.iconloader.util.UIUtil;
 import sun.swing.MenuItemLayoutHelper;
 import sun.swing.SwingUtilities2;
@@ -30,8 +30,6 @@ import javax.swing.plaf.basic.BasicHTML;
 import javax.swing.text.View;
 import java.awt.*;
 
-import static com.bulenkov.darcula.ui.DarculaCheckBoxUI.getColor;
-
 /**
  * @author Konstantin Bulenkov
  */
@@ -60,15 +58,15 @@ public class DarculaCheckBoxMenuItemUI extends DarculaMenuItemUIBase {
     g.translate(lr.getCheckRect().x+1, lr.getCheckRect().y+1);
 
     g2.translate(x, y);
-    final Paint paint = new GradientPaint(w / 2, 0, b.getBackground().brighter(),
-            w / 2, h, b.getBackground());
+    final Paint paint = RenderingProfile.isSimplified(b) ? b.getBackground()
+            : new GradientPaint(w / 2, 0, b.getBackground().brighter(), w / 2, h, b.getBackground());
     g2.setPaint(paint);
     g2.fillRect(1, 1, w - 2, h - 2);
 
     //setup AA for lines
-    final GraphicsConfig config = GraphicsUtil.setupAAPainting(g);
+    final GraphicsConfig config = RenderingProfile.setupAAPainting(g, b);
 
-    g2.setColor(getColor("checkBoxBackgroundColor", null));
+    g2.setColor(DarculaPalette.getInstance().checkBoxBackground);
 
     if (c.hasFocus()) {
       g2.fillRoundRect(0, 0, w - 2, h - 2, 4, 4);
@@ -76,7 +74,7 @@ public class DarculaCheckBoxMenuItemUI extends DarculaMenuItemUIBase {
     } else {
       g2.fillRoundRect(0, 0, w, h - 1 , 4, 4);
 
-      g2.setColor(UIManager.getColor("CheckBox.darcula.checkBoxBorderColor"));
+      g2.setColor(DarculaPalette.getInstance().checkBoxBorder);
       g2.drawRoundRect(0, 0, w, h - 1, 4, 4);
     }
 
@@ -94,7 +92,6 @@ public class DarculaCheckBoxMenuItemUI extends DarculaMenuItemUIBase {
   }
 
   protected Color getCheckSignColor(boolean enabled) {
-    return enabled ? getColor("checkSignColor", Gray._170)
-            : getColor("checkSignColorDisabled", Gray._120);
+    return enabled ? DarculaPalette.getInstance().checkSign : DarculaPalette.getInstance().checkSignDisabled;
   }
 }
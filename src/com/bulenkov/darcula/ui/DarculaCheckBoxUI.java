@@ -15,7 +15,10 @@
  */
 package com.bulenkov.darcula.ui;
 
+import com.bulenkov.darcula.DarculaPalette;
 import com.bulenkov.darcula.DarculaUIUtil;
+import com.bulenkov.darcula.util.PaintProfiler;
+import com.bulenkov.darcula.util.RenderingProfile;
 import com.bulenkov.iconloader.util.*;
 import sun.swing.SwingUtilities2;
 
@@ -31,128 +34,161 @@ import java.awt.*;
  * @author Konstantin Bulenkov
  */
 public class DarculaCheckBoxUI extends MetalCheckBoxUI {
+  private static final Icon DEFAULT_ICON = new IconUIResource(EmptyIcon.create(20));
+  // Like MetalCheckBoxUI, keeps no per-check box state and is shared
+  private static final DarculaCheckBoxUI ourInstance = new DarculaCheckBoxUI();
+
   @SuppressWarnings("MethodOverridesStaticMethodOfSuperclass")
   public static ComponentUI createUI(JComponent c) {
     if (UIUtil.getParentOfType(CellRendererPane.class, c) != null) {
       c.setBorder(null);
     }
-    return new DarculaCheckBoxUI();
+    return ourInstance;
   }
 
-  @Override
-  public synchronized void paint(Graphics g2d, JComponent c) {
-    Graphics2D g = (Graphics2D)g2d;
-    JCheckBox b = (JCheckBox) c;
-    final ButtonModel model = b.getModel();
-    final Dimension size = c.getSize();
-    final Font font = c.getFont();
-
-    g.setFont(font);
-    FontMetrics fm = SwingUtilities2.getFontMetrics(c, g, font);
-
-    Rectangle viewRect = new Rectangle(size);
-    Rectangle iconRect = new Rectangle();
-    Rectangle textRect = new Rectangle();
-
-    Insets i = c.getInsets();
-    viewRect.x += i.left;
-    viewRect.y += i.top;
-    viewRect.width -= (i.right + viewRect.x);
-    viewRect.height -= (i.bottom + viewRect.y);
-
-    String text = SwingUtilities.layoutCompoundLabel(c, fm, b.getText(), getDefaultIcon(),
-                                                     b.getVerticalAlignment(), b.getHorizontalAlignment(),
-                                                     b.getVerticalTextPosition(), b.getHorizontalTextPosition(),
-                                                     viewRect, iconRect, textRect, b.getIconTextGap());
-
-    //background
-    if (c.isOpaque()) {
-      g.setColor(b.getBackground());
-      g.fillRect(0, 0, size.width, size.height);
+  private final DarculaGlyphAtlas.Painter myGlyphPainter = new DarculaGlyphAtlas.Painter() {
+    @Override
+    public void paintGlyph(Graphics2D g, int x, int y, int iconWidth, int iconHeight, Color background, int state) {
+      paintCheckBox(g, x, y, iconWidth, iconHeight, background, state);
     }
+  };
 
-    if (b.isSelected() && b.getSelectedIcon() != null) {
-      b.getSelectedIcon().paintIcon(b, g, iconRect.x + 4, iconRect.y + 2);
-    } else if (!b.isSelected() && b.getIcon() != null) {
-      b.getIcon().paintIcon(b, g, iconRect.x + 4, iconRect.y + 2);
-    } else {
-      final int x = iconRect.x + 3;
-      final int y = iconRect.y + 3;
-      final int w = iconRect.width - 6;
-      final int h = iconRect.height - 6;
-
-      g.translate(x, y);
-      final Paint paint = new GradientPaint(w / 2, 0, b.getBackground().brighter(),
-                                                    w / 2, h, b.getBackground());
-      g.setPaint(paint);
-      g.fillRect(1, 1, w - 2, h - 2);
-
-      //setup AA for lines
-      final GraphicsConfig config = GraphicsUtil.setupAAPainting(g);
-
-      g.setColor(getColor("checkBoxBackgroundColor", null));
+  @Override
+  public void paint(Graphics g2d, JComponent c) {
+    final int token = PaintProfiler.start();
+    try {
+      Graphics2D g = (Graphics2D)g2d;
+      JCheckBox b = (JCheckBox) c;
+      final ButtonModel model = b.getModel();
+      final Dimension size = c.getSize();
+      final Font font = c.getFont();
+
+      g.setFont(font);
+      FontMetrics fm = SwingUtilities2.getFontMetrics(c, g, font);
+
+      Rectangle viewRect = new Rectangle(size);
+      Rectangle iconRect = new Rectangle();
+      Rectangle textRect = new Rectangle();
+
+      Insets i = c.getInsets();
+      viewRect.x += i.left;
+      viewRect.y += i.top;
+      viewRect.width -= (i.right + viewRect.x);
+      viewRect.height -= (i.bottom + viewRect.y);
+
+      String text = SwingUtilities.layoutCompoundLabel(c, fm, b.getText(), getDefaultIcon(),
+                                                       b.getVerticalAlignment(), b.getHorizontalAlignment(),
+                                                       b.getVerticalTextPosition(), b.getHorizontalTextPosition(),
+                                                       viewRect, iconRect, textRect, b.getIconTextGap());
+
+      //background
+      if (c.isOpaque()) {
+        g.setColor(b.getBackground());
+        g.fillRect(0, 0, size.width, size.height);
+      }
 
-      if (c.hasFocus()) {
-        g.fillRoundRect(0, 0, w - 2, h - 2, 4, 4);
-        DarculaUIUtil.paintFocusRing(g, 1, 1, w - 2, h - 2);
+      if (b.isSelected() && b.getSelectedIcon() != null) {
+        b.getSelectedIcon().paintIcon(b, g, iconRect.x + 4, iconRect.y + 2);
+      } else if (!b.isSelected() && b.getIcon() != null) {
+        b.getIcon().paintIcon(b, g, iconRect.x + 4, iconRect.y + 2);
       } else {
-        g.fillRoundRect(0, 0, w, h - 1 , 4, 4);
-
-        g.setColor(UIManager.getColor("CheckBox.darcula.checkBoxBorderColor"));
-        g.drawRoundRect(0, 0, w, h - 1, 4, 4);
+        final int state = DarculaGlyphAtlas.getState(b.isSelected(), b.isEnabled(), b.hasFocus());
+        // The atlas only holds the glyphs of this class; a subclass may override paintCheckBox
+        if (getClass() == DarculaCheckBoxUI.class) {
+          DarculaGlyphAtlas.paint(g, myGlyphPainter, DarculaGlyphAtlas.CHECK_BOX,
+                                  iconRect.x, iconRect.y, iconRect.width, iconRect.height, b.getBackground(), state);
+        } else {
+          paintCheckBox(g, iconRect.x, iconRect.y, iconRect.width, iconRect.height, b.getBackground(), state);
+        }
       }
 
-      if (b.getModel().isSelected()) {
-        g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
-        g.setStroke(new BasicStroke(1 *2.0f, BasicStroke.CAP_ROUND,BasicStroke.JOIN_ROUND));
-        g.setPaint(getCheckSignColor(b.isEnabled()));
-        g.drawLine(4, 7, 6, 10);
-        g.drawLine(6, 10, w - 3, 3);
+      //text
+      if(text != null) {
+        View view = (View) c.getClientProperty(BasicHTML.propertyKey);
+        if (view != null) {
+          view.paint(g, textRect);
+        } else {
+          g.setColor(model.isEnabled() ? b.getForeground() : getDisabledTextColor());
+          SwingUtilities2.drawStringUnderlineCharAt(c, g, text,
+                                                    b.getDisplayedMnemonicIndex(),
+                                                    textRect.x,
+                                                    textRect.y + fm.getAscent());
+        }
       }
-      g.translate(-x, -y);
-      config.restore();
     }
+    finally {
+      PaintProfiler.stop("DarculaCheckBoxUI.paint", c, token);
+    }
+  }
 
-    //text
-    if(text != null) {
-      View view = (View) c.getClientProperty(BasicHTML.propertyKey);
-      if (view != null) {
-        view.paint(g, textRect);
-      } else {
-        g.setColor(model.isEnabled() ? b.getForeground() : getDisabledTextColor());
-        SwingUtilities2.drawStringUnderlineCharAt(c, g, text,
-                                                  b.getDisplayedMnemonicIndex(),
-                                                  textRect.x,
-                                                  textRect.y + fm.getAscent());
-      }
+  /**
+   * Paints the check box glyph into the icon bounds.  The result is cached,
+   * so it must depend on nothing but the arguments and the UI defaults.
+   */
+  protected void paintCheckBox(Graphics2D g, int iconX, int iconY, int iconWidth, int iconHeight,
+                               Color background, int state) {
+    final int x = iconX + 3;
+    final int y = iconY + 3;
+    final int w = iconWidth - 6;
+    final int h = iconHeight - 6;
+
+    g.translate(x, y);
+    final Paint paint = RenderingProfile.isSimplified(null)
+                        ? background
+                        : new GradientPaint(w / 2, 0, background.brighter(), w / 2, h, background);
+    g.setPaint(paint);
+    g.fillRect(1, 1, w - 2, h - 2);
+
+    //setup AA for lines
+    final GraphicsConfig config = RenderingProfile.setupAAPainting(g, null);
+
+    g.setColor(DarculaPalette.getInstance().checkBoxBackground);
+
+    if ((state & DarculaGlyphAtlas.FOCUSED) != 0) {
+      g.fillRoundRect(0, 0, w - 2, h - 2, 4, 4);
+      DarculaUIUtil.paintFocusRing(g, 1, 1, w - 2, h - 2);
+    } else {
+      g.fillRoundRect(0, 0, w, h - 1 , 4, 4);
+
+      g.setColor(DarculaPalette.getInstance().checkBoxBorder);
+      g.drawRoundRect(0, 0, w, h - 1, 4, 4);
+    }
+
+    if ((state & DarculaGlyphAtlas.SELECTED) != 0) {
+      final Stroke oldStroke = g.getStroke();
+      g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+      g.setStroke(new BasicStroke(1 *2.0f, BasicStroke.CAP_ROUND,BasicStroke.JOIN_ROUND));
+      g.setPaint(getCheckSignColor((state & DarculaGlyphAtlas.ENABLED) != 0));
+      g.drawLine(4, 7, 6, 10);
+      g.drawLine(6, 10, w - 3, 3);
+      g.setStroke(oldStroke);
     }
+    g.translate(-x, -y);
+    config.restore();
   }
 
   protected Color getInactiveFillColor() {
-    return getColor("inactiveFillColor", Gray._40.withAlpha(180));
+    return DarculaPalette.getInstance().checkBoxInactiveFill;
   }
 
   protected Color getBorderColor1(boolean enabled) {
-    return enabled ? getColor("borderColor1", Gray._120.withAlpha(0x5a))
-                   : getColor("disabledBorderColor1", Gray._120.withAlpha(90));
+    return enabled ? DarculaPalette.getInstance().checkBoxBorder1 : DarculaPalette.getInstance().checkBoxDisabledBorder1;
   }
 
   protected Color getBorderColor2(boolean enabled) {
-    return enabled ? getColor("borderColor2", Gray._105.withAlpha(90))
-                   : getColor("disabledBorderColor2", Gray._105.withAlpha(90));
+    return enabled ? DarculaPalette.getInstance().checkBoxBorder2 : DarculaPalette.getInstance().checkBoxDisabledBorder2;
   }
 
   protected Color getBackgroundColor1() {
-    return getColor("backgroundColor1", Gray._110);
+    return DarculaPalette.getInstance().checkBoxBackground1;
   }
 
   protected Color getBackgroundColor2() {
-    return getColor("backgroundColor2", Gray._95);
+    return DarculaPalette.getInstance().checkBoxBackground2;
   }
 
   protected Color getCheckSignColor(boolean enabled) {
-    return enabled ? getColor("checkSignColor", Gray._170)
-                   : getColor("checkSignColorDisabled", Gray._120);
+    return enabled ? DarculaPalette.getInstance().checkSign : DarculaPalette.getInstance().checkSignDisabled;
   }
 
   protected static Color getColor(String shortPropertyName, Color defaultValue) {
@@ -162,6 +198,6 @@ public class DarculaCheckBoxUI extends MetalCheckBoxUI {
 
   @Override
   public Icon getDefaultIcon() {
-    return new IconUIResource(EmptyIcon.create(20));
+    return DEFAULT_ICON;
   }
 }
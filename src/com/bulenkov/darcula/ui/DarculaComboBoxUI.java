@@ -15,7 +15,11 @@
  */
 package com.bulenkov.darcula.ui;
 
+import com.bulenkov.darcula.DarculaPalette;
 import com.bulenkov.darcula.DarculaUIUtil;
+import com.bulenkov.darcula.util.PaintProfiler;
+import com.bulenkov.darcula.util.RenderingProfile;
+import com.bulenkov.darcula.util.SharedInsets;
 import com.bulenkov.iconloader.util.DoubleColor;
 import com.bulenkov.iconloader.util.GraphicsConfig;
 import com.bulenkov.iconloader.util.Gray;
@@ -28,7 +32,6 @@ import javax.swing.border.LineBorder;
 import javax.swing.plaf.BorderUIResource;
 import javax.swing.plaf.ComponentUI;
 import javax.swing.plaf.DimensionUIResource;
-import javax.swing.plaf.InsetsUIResource;
 import javax.swing.plaf.basic.BasicArrowButton;
 import javax.swing.plaf.basic.BasicComboBoxUI;
 import javax.swing.plaf.basic.BasicComboPopup;
@@ -45,31 +48,42 @@ import java.awt.geom.Path2D;
  */
 @SuppressWarnings("GtkPreferredJComboBoxRenderer")
 public class DarculaComboBoxUI extends BasicComboBoxUI implements Border {
-  private final JComboBox myComboBox;
+  private static final Border POPUP_BORDER = new DarculaPopupMenuBorder();
+  private static final SharedInsets INSETS = new SharedInsets(4, 7, 4, 5);
+
   private Insets myPadding;
 
+  public DarculaComboBoxUI() {
+  }
+
+  /**
+   * @deprecated The combo box is taken from {@link #installUI(JComponent)}; use {@link #DarculaComboBoxUI()}.
+   */
+  @Deprecated
   public DarculaComboBoxUI(JComboBox comboBox) {
-    super();
-    myComboBox = comboBox;
-    myComboBox.setBorder(this);
   }
 
   @SuppressWarnings("MethodOverridesStaticMethodOfSuperclass")
   public static ComponentUI createUI(final JComponent c) {
-    return new DarculaComboBoxUI(((JComboBox)c));
+    return new DarculaComboBoxUI();
   }
 
   @Override
   protected void installDefaults() {
     super.installDefaults();
+    comboBox.setBorder(this);
     myPadding = UIManager.getInsets("ComboBox.padding");
   }
 
 
   protected JButton createArrowButton() {
-    final Color bg = myComboBox.getBackground();
-    final Color fg = myComboBox.getForeground();
+    final Color bg = comboBox.getBackground();
+    final Color fg = comboBox.getForeground();
     JButton button = new BasicArrowButton(SwingConstants.SOUTH, bg, fg, fg, fg) {
+      // Arrow colors derived from the foreground they were last created for
+      private Color myArrowForeground;
+      private Color myArrowColor;
+      private Color myDisabledArrowColor;
 
       @Override
       public void paint(Graphics g2) {
@@ -78,12 +92,17 @@ public class DarculaComboBoxUI extends BasicComboBoxUI implements Border {
 
         final int w = getWidth();
         final int h = getHeight();
-        if (!isTableCellEditor(myComboBox)) {
+        if (!isTableCellEditor(comboBox)) {
           g.setColor(getArrowButtonFillColor(UIUtil.getControlColor()));
           g.fillRect(0, 0, w, h);
         }
-        g.setColor(comboBox.isEnabled() ? new DoubleColor(Gray._255, getForeground()) : new DoubleColor(Gray._255, getForeground().darker()));
-        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        if (myArrowForeground != getForeground()) {
+          myArrowForeground = getForeground();
+          myArrowColor = new DoubleColor(Gray._255, myArrowForeground);
+          myDisabledArrowColor = new DoubleColor(Gray._255, myArrowForeground.darker());
+        }
+        g.setColor(comboBox.isEnabled() ? myArrowColor : myDisabledArrowColor);
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingProfile.getAntialiasing(comboBox));
         g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_NORMALIZE);
         g.setStroke(new BasicStroke(1.0f, BasicStroke.CAP_BUTT, BasicStroke.JOIN_BEVEL));
         final int xU = w / 4;
@@ -112,14 +131,14 @@ public class DarculaComboBoxUI extends BasicComboBoxUI implements Border {
   }
 
   protected Color getArrowButtonFillColor(Color defaultColor) {
-    final Color color = myComboBox.hasFocus() ? UIManager.getColor("ComboBox.darcula.arrowFocusedFillColor")
-                        : UIManager.getColor("ComboBox.darcula.arrowFillColor");
+    final DarculaPalette palette = DarculaPalette.getInstance();
+    final Color color = comboBox.hasFocus() ? palette.comboArrowFocusedFill : palette.comboArrowFill;
     return color == null ? defaultColor : comboBox != null && !comboBox.isEnabled() ? UIUtil.getControlColor() : color;
   }
 
   @Override
   protected Insets getInsets() {
-    return new InsetsUIResource(4, 7, 4, 5);
+    return INSETS.get();
   }
 
   protected Dimension getSizeForComponent(Component comp) {
@@ -132,18 +151,24 @@ public class DarculaComboBoxUI extends BasicComboBoxUI implements Border {
 
   @Override
   public void paint(Graphics g, JComponent c) {
-    final Container parent = c.getParent();
-    if (parent != null) {
-      g.setColor(parent.getBackground());
-      g.fillRect(0, 0, c.getWidth(), c.getHeight());
+    final int token = PaintProfiler.start();
+    try {
+      final Container parent = c.getParent();
+      if (parent != null) {
+        g.setColor(parent.getBackground());
+        g.fillRect(0, 0, c.getWidth(), c.getHeight());
+      }
+      Rectangle r = rectangleForCurrentValue();
+      if (!isTableCellEditor(c)) {
+        paintBorder(c, g, 0, 0, c.getWidth(), c.getHeight());
+        hasFocus = comboBox.hasFocus();
+        paintCurrentValueBackground(g, r, hasFocus);
+      }
+      paintCurrentValue(g, r, hasFocus);
     }
-    Rectangle r = rectangleForCurrentValue();
-    if (!isTableCellEditor(c)) {
-      paintBorder(c, g, 0, 0, c.getWidth(), c.getHeight());
-      hasFocus = comboBox.hasFocus();
-      paintCurrentValueBackground(g, r, hasFocus);
+    finally {
+      PaintProfiler.stop("DarculaComboBoxUI.paint", c, token);
     }
-    paintCurrentValue(g, r, hasFocus);
   }
 
   private static boolean isTableCellEditor(JComponent c) {
@@ -154,7 +179,7 @@ public class DarculaComboBoxUI extends BasicComboBoxUI implements Border {
   protected Rectangle rectangleForCurrentValue() {
     final Rectangle r = super.rectangleForCurrentValue();
     r.x-=2;
-    r.y-= isTableCellEditor(myComboBox) ? 0 : 1;
+    r.y-= isTableCellEditor(comboBox) ? 0 : 1;
     return r;
   }
 
@@ -216,7 +241,7 @@ public class DarculaComboBoxUI extends BasicComboBoxUI implements Border {
   protected ComboPopup createPopup() {
 
     BasicComboPopup popup = new BasicComboPopup(comboBox);
-    popup.setBorder(new DarculaPopupMenuBorder());
+    popup.setBorder(POPUP_BORDER);
     return popup;
   }
 
@@ -269,46 +294,51 @@ public class DarculaComboBoxUI extends BasicComboBoxUI implements Border {
     if (comboBox == null || arrowButton == null) {
       return; //NPE on LaF change
     }
+    final int token = PaintProfiler.start();
+    try {
+      hasFocus = false;
+      checkFocus();
+      final Graphics2D g = (Graphics2D)g2;
+      final Rectangle arrowButtonBounds = arrowButton.getBounds();
+      final int xxx = arrowButtonBounds.x - 5;
+      final GraphicsConfig config = new GraphicsConfig(g);
+      g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingProfile.getAntialiasing(comboBox));
+      g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_NORMALIZE);
+      if (editor != null && comboBox.isEditable()) {
+        ((JComponent)editor).setBorder(null);
+        g.setColor(editor.getBackground());
+        g.fillRoundRect(x + 1, y + 1, width - 2, height - 4, 5, 5);
+        g.setColor(getArrowButtonFillColor(arrowButton.getBackground()));
+        g.fillRoundRect(xxx, y + 1, width - xxx, height - 4, 5, 5);
+        g.setColor(editor.getBackground());
+        g.fillRect(xxx, y + 1, 5, height - 4);
+      } else {
+        g.setColor(UIUtil.getPanelBackground());
+        g.fillRoundRect(x + 1, y + 1, width - 2, height - 4, 5, 5);
+        g.setColor(getArrowButtonFillColor(arrowButton.getBackground()));
+        g.fillRoundRect(xxx, y + 1, width - xxx, height - 4, 5, 5);
+        g.setColor(UIUtil.getPanelBackground());
+        g.fillRect(xxx, y + 1, 5, height - 4);
+      }
+      final Color borderColor = getBorderColor();//ColorUtil.shift(UIUtil.getBorderColor(), 4);
+      g.setColor(getArrowButtonFillColor(borderColor));
 
-    hasFocus = false;
-    checkFocus();
-    final Graphics2D g = (Graphics2D)g2;
-    final Rectangle arrowButtonBounds = arrowButton.getBounds();
-    final int xxx = arrowButtonBounds.x - 5;
-    final GraphicsConfig config = new GraphicsConfig(g);
-    g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-    g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_NORMALIZE);
-    if (editor != null && comboBox.isEditable()) {
-      ((JComponent)editor).setBorder(null);
-      g.setColor(editor.getBackground());
-      g.fillRoundRect(x + 1, y + 1, width - 2, height - 4, 5, 5);
-      g.setColor(getArrowButtonFillColor(arrowButton.getBackground()));
-      g.fillRoundRect(xxx, y + 1, width - xxx, height - 4, 5, 5);
-      g.setColor(editor.getBackground());
-      g.fillRect(xxx, y + 1, 5, height - 4);
-    } else {
-      g.setColor(UIUtil.getPanelBackground());
-      g.fillRoundRect(x + 1, y + 1, width - 2, height - 4, 5, 5);
-      g.setColor(getArrowButtonFillColor(arrowButton.getBackground()));
-      g.fillRoundRect(xxx, y + 1, width - xxx, height - 4, 5, 5);
-      g.setColor(UIUtil.getPanelBackground());
-      g.fillRect(xxx, y + 1, 5, height - 4);
-    }
-    final Color borderColor = getBorderColor();//ColorUtil.shift(UIUtil.getBorderColor(), 4);
-    g.setColor(getArrowButtonFillColor(borderColor));
-
-    Rectangle r = rectangleForCurrentValue();
-    paintCurrentValueBackground(g, r, hasFocus);
-    paintCurrentValue(g, r, false);
+      Rectangle r = rectangleForCurrentValue();
+      paintCurrentValueBackground(g, r, hasFocus);
+      paintCurrentValue(g, r, false);
 
-    if (hasFocus) {
-      DarculaUIUtil.paintFocusRing(g, 2, 2, width - 4, height - 5);
+      if (hasFocus) {
+        DarculaUIUtil.paintFocusRing(g, 2, 2, width - 4, height - 5);
+      }
+      else {
+        g.setColor(borderColor);
+        g.drawRoundRect(1, 1, width - 2, height - 4, 5, 5);
+      }
+      config.restore();
     }
-    else {
-      g.setColor(borderColor);
-      g.drawRoundRect(1, 1, width - 2, height - 4, 5, 5);
+    finally {
+      PaintProfiler.stop("DarculaComboBoxUI.paintBorder", c, token);
     }
-    config.restore();
   }
 
   private void checkFocus() {
@@ -328,12 +358,12 @@ public class DarculaComboBoxUI extends BasicComboBoxUI implements Border {
   }
 
   private static Color getBorderColor() {
-    return new DoubleColor(Gray._150, Gray._100);
+    return DarculaPalette.getInstance().comboBorder;
   }
 
   @Override
   public Insets getBorderInsets(Component c) {
-    return new InsetsUIResource(4, 7, 4, 5);
+    return INSETS.get();
   }
 
   @Override
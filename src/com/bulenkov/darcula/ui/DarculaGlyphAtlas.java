@@ -0,0 +1,150 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bulenkov.darcula.ui;
+
+import com.bulenkov.darcula.util.NinePatch;
+import com.bulenkov.darcula.util.Registry;
+import com.bulenkov.darcula.util.RenderingProfile;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Pre-rendered check box and radio button glyphs.  For every glyph kind, icon
+ * size, background and device scale a single image holds all eight
+ * selected/enabled/focused states side by side, so painting a glyph is one
+ * {@code drawImage}.  The atlases are dropped whenever the look and feel or
+ * the UI defaults change.
+ */
+final class DarculaGlyphAtlas {
+  interface Painter {
+    /**
+     * Paints the glyph for {@code state} into the icon bounds at {@code x, y}.
+     */
+    void paintGlyph(Graphics2D g, int x, int y, int iconWidth, int iconHeight, Color background, int state);
+  }
+
+  static final int CHECK_BOX = 0;
+  static final int RADIO_BUTTON = 1;
+
+  static final int SELECTED = 1;
+  static final int ENABLED = 2;
+  static final int FOCUSED = 4;
+  private static final int STATES = 8;
+
+  private static final boolean ENABLED_CACHE = !Registry.is("darcula.glyphAtlas.noCache");
+
+  // Focus rings reach 3 pixels past the glyph, plus antialiasing bleed
+  private static final int PADDING = 4;
+  private static final int MAX_ICON_SIZE = 0xFF;
+  private static final int CACHE_SIZE = 32;
+
+  private static final Map<Long, BufferedImage> ourAtlases = new LinkedHashMap<Long, BufferedImage>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Long, BufferedImage> eldest) {
+      return size() > CACHE_SIZE;
+    }
+  };
+
+  static {
+    final PropertyChangeListener invalidator = new PropertyChangeListener() {
+      @Override
+      public void propertyChange(PropertyChangeEvent evt) {
+        clear();
+      }
+    };
+    UIManager.addPropertyChangeListener(invalidator);
+    UIManager.getDefaults().addPropertyChangeListener(invalidator);
+  }
+
+  private DarculaGlyphAtlas() {
+  }
+
+  static int getState(boolean selected, boolean enabled, boolean focused) {
+    return (selected ? SELECTED : 0) | (enabled ? ENABLED : 0) | (focused ? FOCUSED : 0);
+  }
+
+  static void clear() {
+    synchronized (ourAtlases) {
+      ourAtlases.clear();
+    }
+  }
+
+  /**
+   * Paints the glyph of {@code kind} in {@code state} at the icon bounds
+   * {@code x, y, iconWidth, iconHeight}.  {@code background} is only part of
+   * the cache key if the painter actually uses it; pass {@code null} otherwise.
+   */
+  static void paint(Graphics2D g, Painter painter, int kind, int x, int y, int iconWidth, int iconHeight,
+                    Color background, int state) {
+    final AffineTransform at = g.getTransform();
+    // Cached glyphs are antialiased, so low-bandwidth sessions paint them directly
+    final int scale = ENABLED_CACHE && !RenderingProfile.isLowBandwidth() ? NinePatch.getDeviceScale(at) : 0;
+    if (scale == 0 || scale > 16 || iconWidth <= 0 || iconHeight <= 0
+        || iconWidth > MAX_ICON_SIZE || iconHeight > MAX_ICON_SIZE) {
+      painter.paintGlyph(g, x, y, iconWidth, iconHeight, background, state);
+      return;
+    }
+
+    final long key = (background == null ? 0L : background.getRGB() & 0xFFFFFFFFL)
+                     | (long)iconWidth << 32
+                     | (long)iconHeight << 40
+                     | (long)kind << 48
+                     | (long)scale << 49;
+    BufferedImage atlas;
+    synchronized (ourAtlases) {
+      atlas = ourAtlases.get(key);
+      if (atlas == null) {
+        atlas = createAtlas(painter, iconWidth, iconHeight, background, scale);
+        ourAtlases.put(key, atlas);
+      }
+    }
+
+    final int cellWidth = (iconWidth + 2 * PADDING) * scale;
+    final int cellHeight = (iconHeight + 2 * PADDING) * scale;
+    final int sx = state * cellWidth;
+    final int dx = (x - PADDING) * scale;
+    final int dy = (y - PADDING) * scale;
+    if (scale != 1) {
+      g.setTransform(AffineTransform.getTranslateInstance(at.getTranslateX(), at.getTranslateY()));
+    }
+    g.drawImage(atlas, dx, dy, dx + cellWidth, dy + cellHeight, sx, 0, sx + cellWidth, cellHeight, null);
+    if (scale != 1) {
+      g.setTransform(at);
+    }
+  }
+
+  private static BufferedImage createAtlas(Painter painter, int iconWidth, int iconHeight, Color background, int scale) {
+    final int cellWidth = iconWidth + 2 * PADDING;
+    final int cellHeight = iconHeight + 2 * PADDING;
+    final BufferedImage image = NinePatch.createImage(STATES * cellWidth * scale, cellHeight * scale);
+    final Graphics2D g = image.createGraphics();
+    g.scale(scale, scale);
+    for (int state = 0; state < STATES; state++) {
+      final Graphics2D cell = (Graphics2D)g.create(state * cellWidth, 0, cellWidth, cellHeight);
+      painter.paintGlyph(cell, PADDING, PADDING, iconWidth, iconHeight, background, state);
+      cell.dispose();
+    }
+    g.dispose();
+    return image;
+  }
+}
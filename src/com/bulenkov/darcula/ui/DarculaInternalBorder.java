@@ -15,15 +15,18 @@
  */
 package com.bulenkov.darcula.ui;
 
-import javax.swing.border.Border;
-import javax.swing.plaf.InsetsUIResource;
+import com.bulenkov.darcula.util.SharedInsets;
+
+import javax.swing.border.AbstractBorder;
 import javax.swing.plaf.UIResource;
 import java.awt.*;
 
 /**
  * @author Konstantin Bulenkov
  */
-public class DarculaInternalBorder implements UIResource, Border {
+public class DarculaInternalBorder extends AbstractBorder implements UIResource {
+  private static final SharedInsets INSETS = new SharedInsets(20, 3, 3, 3);
+
   @Override
   public void paintBorder(Component c, Graphics g, int x, int y, int width, int height) {
     g.setColor(Color.ORANGE);
@@ -32,7 +35,12 @@ public class DarculaInternalBorder implements UIResource, Border {
 
   @Override
   public Insets getBorderInsets(Component c) {
-    return new InsetsUIResource(20, 3, 3, 3);
+    return INSETS.get();
+  }
+
+  @Override
+  public Insets getBorderInsets(Component c, Insets insets) {
+    return INSETS.fill(insets);
   }
 
   @Override
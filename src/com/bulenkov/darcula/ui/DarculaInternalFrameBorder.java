@@ -16,25 +16,34 @@
 
 package com.bulenkov.darcula.ui;
 
+import com.bulenkov.darcula.DarculaPalette;
+import com.bulenkov.darcula.util.SharedInsets;
+
 import javax.swing.*;
-import javax.swing.border.Border;
-import javax.swing.plaf.InsetsUIResource;
+import javax.swing.border.AbstractBorder;
 import javax.swing.plaf.UIResource;
 import java.awt.*;
 
 /**
  * @author Konstantin Bulenkov
  */
-public class DarculaInternalFrameBorder implements Border, UIResource {
+public class DarculaInternalFrameBorder extends AbstractBorder implements UIResource {
+    private static final SharedInsets INSETS = new SharedInsets(1, 1, 1, 1);
+
     @Override
     public void paintBorder(Component c, Graphics g, int x, int y, int w, int h) {
-      g.setColor(UIManager.getColor("InternalFrame.darcula.borderColor"));
+      g.setColor(DarculaPalette.getInstance().internalFrameBorder);
       g.drawRect(x, y, w-1, h-1);
     }
 
     @Override
     public Insets getBorderInsets(Component c) {
-        return new InsetsUIResource(1, 1, 1, 1);
+        return INSETS.get();
+    }
+
+    @Override
+    public Insets getBorderInsets(Component c, Insets insets) {
+        return INSETS.fill(insets);
     }
 
     @Override
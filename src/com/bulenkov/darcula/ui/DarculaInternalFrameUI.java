@@ -15,8 +15,9 @@
  */
 package com.bulenkov.darcula.ui;
 
+import com.bulenkov.darcula.DarculaPalette;
+import com.bulenkov.darcula.util.RenderingProfile;
 import com.bulenkov.iconloader.util.GraphicsConfig;
-import com.bulenkov.iconloader.util.GraphicsUtil;
 
 import javax.swing.*;
 import javax.swing.plaf.ComponentUI;
@@ -102,14 +103,11 @@ public class DarculaInternalFrameUI extends BasicInternalFrameUI {
                 int w = getWidth();
                 int h = getHeight();
 
-                Color top = UIManager.getColor("InternalFrameTitlePane.darcula.borderColorTop");
-                Color left = UIManager.getColor("InternalFrameTitlePane.darcula.borderColorLeft");
-                Color bottom = UIManager.getColor("InternalFrameTitlePane.darcula.borderColorBottom");
-                if (frame.isSelected()) {
-                    top = UIManager.getColor("InternalFrameTitlePane.darcula.selected.borderColorTop");
-                    left = UIManager.getColor("InternalFrameTitlePane.darcula.selected.borderColorLeft");
-                    bottom = UIManager.getColor("InternalFrameTitlePane.darcula.selected.borderColorBottom");
-                }
+                final DarculaPalette palette = DarculaPalette.getInstance();
+                final boolean selected = frame.isSelected();
+                final Color top = selected ? palette.internalFrameSelectedTitleBorderTop : palette.internalFrameTitleBorderTop;
+                final Color left = selected ? palette.internalFrameSelectedTitleBorderLeft : palette.internalFrameTitleBorderLeft;
+                final Color bottom = selected ? palette.internalFrameSelectedTitleBorderBottom : palette.internalFrameTitleBorderBottom;
 
                 g.setColor(top);
                 g.drawLine(2, 0, w, 0);
@@ -162,7 +160,7 @@ public class DarculaInternalFrameUI extends BasicInternalFrameUI {
         @Override
         public void paintIcon(Component c, Graphics g, int x, int y) {
             Graphics2D g2 = (Graphics2D) g;
-            GraphicsConfig config = GraphicsUtil.setupAAPainting(g2);
+            GraphicsConfig config = RenderingProfile.setupAAPainting(g2, c);
             g2.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
             g2.setStroke(new BasicStroke(1.5f));
             g2.setPaint(getColor());
@@ -184,7 +182,7 @@ public class DarculaInternalFrameUI extends BasicInternalFrameUI {
         @Override
         public void paintIcon(Component c, Graphics g, int x, int y) {
             Graphics2D g2 = (Graphics2D) g;
-            GraphicsConfig config = GraphicsUtil.setupAAPainting(g2);
+            GraphicsConfig config = RenderingProfile.setupAAPainting(g2, c);
             g2.setStroke(new BasicStroke(2f));
             g2.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
             g2.setPaint(getColor());
@@ -212,7 +210,7 @@ public class DarculaInternalFrameUI extends BasicInternalFrameUI {
         @Override
         public void paintIcon(Component c, Graphics g, int x, int y) {
             Graphics2D g2 = (Graphics2D) g;
-            GraphicsConfig config = GraphicsUtil.setupAAPainting(g2);
+            GraphicsConfig config = RenderingProfile.setupAAPainting(g2, c);
             g2.setStroke(new BasicStroke(2f));
             g2.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
             g2.setPaint(getColor());
@@ -236,7 +234,7 @@ public class DarculaInternalFrameUI extends BasicInternalFrameUI {
         @Override
         public void paintIcon(Component c, Graphics g, int x, int y) {
             Graphics2D g2 = (Graphics2D) g;
-            GraphicsConfig config = GraphicsUtil.setupAAPainting(g2);
+            GraphicsConfig config = RenderingProfile.setupAAPainting(g2, c);
             g2.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
             g2.setPaint(getColor());
             g2.setStroke(new BasicStroke(2f));
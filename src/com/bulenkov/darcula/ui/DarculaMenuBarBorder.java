@@ -15,29 +15,38 @@
  */
 package com.bulenkov.darcula.ui;
 
+import com.bulenkov.darcula.DarculaPalette;
+import com.bulenkov.darcula.util.SharedInsets;
+
 import javax.swing.*;
-import javax.swing.border.Border;
-import javax.swing.plaf.InsetsUIResource;
+import javax.swing.border.AbstractBorder;
 import javax.swing.plaf.UIResource;
 import java.awt.*;
 
 /**
  * @author Konstantin Bulenkov
  */
-public class DarculaMenuBarBorder implements Border, UIResource {
+public class DarculaMenuBarBorder extends AbstractBorder implements UIResource {
+  private static final SharedInsets INSETS = new SharedInsets(0, 0, 1, 0);
+
   @Override
   public void paintBorder(Component c, Graphics g, int x, int y, int w, int h) {
     g.translate(x, y);
     w--;
     h--;
-    g.setColor(UIManager.getColor("MenuBar.darcula.borderColor"));
+    g.setColor(DarculaPalette.getInstance().menuBarBorder);
     g.drawLine(0, h, w, h);
     g.translate(-x, -y);
   }
 
   @Override
   public Insets getBorderInsets(Component c) {
-    return new InsetsUIResource(0, 0, 1, 0);
+    return INSETS.get();
+  }
+
+  @Override
+  public Insets getBorderInsets(Component c, Insets insets) {
+    return INSETS.fill(insets);
   }
 
   @Override
@@ -16,6 +16,8 @@
 
 package com.bulenkov.darcula.ui;
 
+import com.bulenkov.darcula.DarculaPalette;
+
 import javax.swing.*;
 import javax.swing.plaf.ComponentUI;
 import javax.swing.plaf.metal.MetalMenuBarUI;
@@ -32,7 +34,7 @@ public class DarculaMenuBarUI extends MetalMenuBarUI {
 
   @Override
   public void paint(Graphics g, JComponent c) {
-    g.setColor(UIManager.getColor("MenuItem.background"));
+    g.setColor(DarculaPalette.getInstance().menuItemBackground);
     g.fillRect(0, 0, c.getWidth(), c.getHeight());
   }
 }
@@ -16,13 +16,23 @@
 
 package com.bulenkov.darcula.ui;
 
+import com.bulenkov.darcula.util.SharedInsets;
+
 import javax.swing.plaf.BorderUIResource;
+import java.awt.*;
 
 /**
  * @author Konstantin Bulenkov
  */
 public class DarculaMenuItemBorder extends BorderUIResource.EmptyBorderUIResource {
+  private static final SharedInsets INSETS = new SharedInsets(2, 2, 2, 2);
+
   public DarculaMenuItemBorder() {
     super(2, 2, 2, 2);
   }
+
+  @Override
+  public Insets getBorderInsets(Component c) {
+    return INSETS.get();
+  }
 }
@@ -16,6 +16,8 @@
 
 package com.bulenkov.darcula.ui;
 
+import com.bulenkov.darcula.util.PaintProfiler;
+
 import sun.swing.MenuItemLayoutHelper;
 import sun.swing.SwingUtilities2;
 
@@ -124,34 +126,40 @@ public class DarculaMenuItemUIBase extends BasicMenuItemUI {
                                    Icon checkIcon, Icon arrowIcon,
                                    Color background, Color foreground,
                                    int defaultTextIconGap) {
-    // Save original graphics font and color
-    Font holdf = g.getFont();
-    Color holdc = g.getColor();
-
-    JMenuItem mi = (JMenuItem) c;
-    g.setFont(mi.getFont());
-
-    Rectangle viewRect = new Rectangle(0, 0, mi.getWidth(), mi.getHeight());
-    applyInsets(viewRect, mi.getInsets());
-
-    MenuItemLayoutHelper lh = new MenuItemLayoutHelper(mi, checkIcon,
-        arrowIcon, viewRect, defaultTextIconGap, acceleratorDelimiter,
-        mi.getComponentOrientation().isLeftToRight(), mi.getFont(),
-        acceleratorFont, MenuItemLayoutHelper.useCheckAndArrow(menuItem),
-        getPropertyPrefix());
-    MenuItemLayoutHelper.LayoutResult lr = lh.layoutMenuItem();
-
-    paintBackground(g, mi, background);
-    paintCheckIcon(g, lh, lr, holdc, foreground);
-    paintIcon(g, lh, lr, holdc);
-    g.setColor(foreground);
-    paintText(g, lh, lr);
-    paintAccText(g, lh, lr);
-    paintArrowIcon(g, lh, lr, foreground);
-
-    // Restore original graphics font and color
-    g.setColor(holdc);
-    g.setFont(holdf);
+    final int token = PaintProfiler.start();
+    try {
+      // Save original graphics font and color
+      Font holdf = g.getFont();
+      Color holdc = g.getColor();
+
+      JMenuItem mi = (JMenuItem) c;
+      g.setFont(mi.getFont());
+
+      Rectangle viewRect = new Rectangle(0, 0, mi.getWidth(), mi.getHeight());
+      applyInsets(viewRect, mi.getInsets());
+
+      MenuItemLayoutHelper lh = new MenuItemLayoutHelper(mi, checkIcon,
+          arrowIcon, viewRect, defaultTextIconGap, acceleratorDelimiter,
+          mi.getComponentOrientation().isLeftToRight(), mi.getFont(),
+          acceleratorFont, MenuItemLayoutHelper.useCheckAndArrow(menuItem),
+          getPropertyPrefix());
+      MenuItemLayoutHelper.LayoutResult lr = lh.layoutMenuItem();
+
+      paintBackground(g, mi, background);
+      paintCheckIcon(g, lh, lr, holdc, foreground);
+      paintIcon(g, lh, lr, holdc);
+      g.setColor(foreground);
+      paintText(g, lh, lr);
+      paintAccText(g, lh, lr);
+      paintArrowIcon(g, lh, lr, foreground);
+
+      // Restore original graphics font and color
+      g.setColor(holdc);
+      g.setFont(holdf);
+    }
+    finally {
+      PaintProfiler.stop("DarculaMenuItemUIBase.paintMenuItem", c, token);
+    }
   }
 
   protected void paintIcon(Graphics g, MenuItemLayoutHelper lh,
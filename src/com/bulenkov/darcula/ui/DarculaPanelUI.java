@@ -23,9 +23,10 @@ import javax.swing.plaf.basic.BasicPanelUI;
  * @author Konstantin Bulenkov
  */
 public class DarculaPanelUI extends BasicPanelUI {
+  private static final DarculaPanelUI ourInstance = new DarculaPanelUI();
 
   @SuppressWarnings({"MethodOverridesStaticMethodOfSuperclass", "UnusedDeclaration"})
   public static ComponentUI createUI(JComponent c) {
-    return new DarculaPanelUI();
+    return ourInstance;
   }
 }
@@ -15,6 +15,8 @@
  */
 package com.bulenkov.darcula.ui;
 
+import com.bulenkov.darcula.util.PaintProfiler;
+import com.bulenkov.darcula.util.RenderingProfile;
 import com.bulenkov.iconloader.util.GraphicsConfig;
 
 import javax.swing.*;
@@ -63,32 +65,38 @@ public class DarculaPasswordFieldUI extends BasicPasswordFieldUI {
 
   @Override
   protected void paintBackground(Graphics graphics) {
-    Graphics2D g = (Graphics2D)graphics;
     final JTextComponent c = getComponent();
-    final Container parent = c.getParent();
-    if (parent != null) {
-      g.setColor(parent.getBackground());
-      g.fillRect(0, 0, c.getWidth(), c.getHeight());
-    }
-    final Border border = c.getBorder();
-    if (border instanceof DarculaTextBorder) {
-      g.setColor(c.getBackground());
-      final int width = c.getWidth();
-      final int height = c.getHeight();
-      final Insets i = border.getBorderInsets(c);
-      if (c.hasFocus()) {
-        final GraphicsConfig config = new GraphicsConfig(g);
-        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_NORMALIZE);
-
-        g.fillRoundRect(i.left - 5, i.top - 2, width - i.left - i.right + 10, height - i.top - i.bottom + 6, 5, 5);
-        config.restore();
+    final int token = PaintProfiler.start();
+    try {
+      Graphics2D g = (Graphics2D)graphics;
+      final Container parent = c.getParent();
+      if (parent != null) {
+        g.setColor(parent.getBackground());
+        g.fillRect(0, 0, c.getWidth(), c.getHeight());
       }
-      else {
-        g.fillRect(i.left - 5, i.top - 2, width - i.left - i.right + 12, height - i.top - i.bottom + 6);
+      final Border border = c.getBorder();
+      if (border instanceof DarculaTextBorder) {
+        g.setColor(c.getBackground());
+        final int width = c.getWidth();
+        final int height = c.getHeight();
+        final Insets i = border.getBorderInsets(c);
+        if (c.hasFocus()) {
+          final GraphicsConfig config = new GraphicsConfig(g);
+          g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingProfile.getAntialiasing(c));
+          g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_NORMALIZE);
+
+          g.fillRoundRect(i.left - 5, i.top - 2, width - i.left - i.right + 10, height - i.top - i.bottom + 6, 5, 5);
+          config.restore();
+        }
+        else {
+          g.fillRect(i.left - 5, i.top - 2, width - i.left - i.right + 12, height - i.top - i.bottom + 6);
+        }
+      } else {
+        super.paintBackground(g);
       }
-    } else {
-      super.paintBackground(g);
+    }
+    finally {
+      PaintProfiler.stop("DarculaPasswordFieldUI.paintBackground", c, token);
     }
   }
 }
@@ -15,9 +15,11 @@
  */
 package com.bulenkov.darcula.ui;
 
+import com.bulenkov.darcula.DarculaPalette;
+import com.bulenkov.darcula.util.SharedInsets;
+
 import javax.swing.*;
 import javax.swing.border.AbstractBorder;
-import javax.swing.plaf.InsetsUIResource;
 import javax.swing.plaf.UIResource;
 import java.awt.*;
 
@@ -25,20 +27,25 @@ import java.awt.*;
  * @author Konstantin Bulenkov
  */
 public class DarculaPopupMenuBorder extends AbstractBorder implements UIResource {
-
   private static final int SIZE = 4;
+  private static final SharedInsets INSETS = new SharedInsets(SIZE, SIZE, SIZE, SIZE);
 
   @Override
   public void paintBorder(Component c, Graphics g, int x, int y, int width, int height) {
     g.setColor(c.getBackground());
     g.fillRect(0, 0, width, height);
-    g.setColor(UIManager.getColor("Separator.foreground"));
+    g.setColor(DarculaPalette.getInstance().separatorForeground);
     g.drawRect(1, 1,width-2,height-2);
   }
 
   @Override
   public Insets getBorderInsets(Component c) {
-    return new InsetsUIResource(SIZE, SIZE, SIZE, SIZE);
+    return INSETS.get();
+  }
+
+  @Override
+  public Insets getBorderInsets(Component c, Insets insets) {
+    return INSETS.fill(insets);
   }
 
   @Override
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bulenkov.darcula.ui;
+
+import com.bulenkov.darcula.util.FrameClock;
+import com.bulenkov.darcula.util.RenderingProfile;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.AWTEventListener;
+import java.awt.event.HierarchyEvent;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Animates all indeterminate progress bars from one time base, replacing the
+ * per-bar Swing timer of {@code BasicProgressBarUI}.  The animation step is
+ * derived from {@link System#nanoTime()}, advancing once per
+ * {@code ProgressBar.repaintInterval} milliseconds, so bars repainted for
+ * other reasons don't speed up.
+ * <p>
+ * Bars that aren't showing, or whose frame is iconified, are not repainted.
+ * When no registered bar is visible the animator detaches from the
+ * {@link FrameClock} entirely and waits for a hierarchy or window state
+ * change to wake it up again.  In low-bandwidth mode the bars aren't
+ * repainted and stay at step 0.
+ */
+final class DarculaProgressBarAnimator {
+  private static final int DEFAULT_REPAINT_INTERVAL = 50;
+
+  private static final List<JProgressBar> ourBars = new ArrayList<JProgressBar>();
+  private static long ourStepNanos = DEFAULT_REPAINT_INTERVAL * 1000000L;
+  private static long ourLastStep = -1;
+  private static boolean ourTicking;
+  private static boolean ourSleeping;
+
+  private static final FrameClock.Listener ourTicker = new FrameClock.Listener() {
+    @Override
+    public void onFrame(long now) {
+      tick(now);
+    }
+  };
+
+  private static final AWTEventListener ourWakeUpListener = new AWTEventListener() {
+    @Override
+    public void eventDispatched(AWTEvent event) {
+      if (event instanceof HierarchyEvent && (((HierarchyEvent)event).getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) == 0) {
+        return;
+      }
+      wakeUp();
+    }
+  };
+
+  private DarculaProgressBarAnimator() {
+  }
+
+  /**
+   * Returns the current animation step, shared by all bars.
+   */
+  static long getStep() {
+    if (RenderingProfile.isLowBandwidth()) {
+      return 0;
+    }
+    return System.nanoTime() / ourStepNanos;
+  }
+
+  static void register(JProgressBar bar) {
+    if (ourBars.contains(bar)) {
+      return;
+    }
+    final int interval = UIManager.getInt("ProgressBar.repaintInterval");
+    ourStepNanos = (interval > 0 ? interval : DEFAULT_REPAINT_INTERVAL) * 1000000L;
+    ourBars.add(bar);
+    wakeUp();
+  }
+
+  static void unregister(JProgressBar bar) {
+    ourBars.remove(bar);
+    if (ourBars.isEmpty()) {
+      stopTicking();
+      stopSleeping();
+    }
+  }
+
+  private static void tick(long now) {
+    final long step = now / ourStepNanos;
+    if (step == ourLastStep || RenderingProfile.isLowBandwidth()) {
+      return;
+    }
+    ourLastStep = step;
+
+    boolean anyShowing = false;
+    for (JProgressBar bar : ourBars) {
+      if (isAnimated(bar)) {
+        anyShowing = true;
+        bar.repaint();
+      }
+    }
+    if (!anyShowing) {
+      stopTicking();
+      startSleeping();
+    }
+  }
+
+  private static boolean isAnimated(JProgressBar bar) {
+    if (!bar.isShowing()) {
+      return false;
+    }
+    final Window window = SwingUtilities.getWindowAncestor(bar);
+    return !(window instanceof Frame) || (((Frame)window).getExtendedState() & Frame.ICONIFIED) == 0;
+  }
+
+  private static void wakeUp() {
+    stopSleeping();
+    if (!ourTicking && !ourBars.isEmpty()) {
+      ourTicking = true;
+      FrameClock.addListener(ourTicker);
+    }
+  }
+
+  private static void stopTicking() {
+    if (ourTicking) {
+      ourTicking = false;
+      FrameClock.removeListener(ourTicker);
+    }
+  }
+
+  private static void startSleeping() {
+    if (!ourSleeping) {
+      ourSleeping = true;
+      Toolkit.getDefaultToolkit().addAWTEventListener(ourWakeUpListener,
+                                                      AWTEvent.HIERARCHY_EVENT_MASK | AWTEvent.WINDOW_STATE_EVENT_MASK);
+    }
+  }
+
+  private static void stopSleeping() {
+    if (ourSleeping) {
+      ourSleeping = false;
+      Toolkit.getDefaultToolkit().removeAWTEventListener(ourWakeUpListener);
+    }
+  }
+}
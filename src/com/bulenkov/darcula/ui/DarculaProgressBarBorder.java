@@ -15,13 +15,23 @@
  */
 package com.bulenkov.darcula.ui;
 
+import com.bulenkov.darcula.util.SharedInsets;
+
 import javax.swing.plaf.BorderUIResource;
+import java.awt.*;
 
 /**
  * @author Konstantin Bulenkov
  */
 public class DarculaProgressBarBorder extends BorderUIResource.EmptyBorderUIResource {
+  private static final SharedInsets INSETS = new SharedInsets(0, 0, 0, 0);
+
   public DarculaProgressBarBorder() {
     super(0,0,0,0);
   }
+
+  @Override
+  public Insets getBorderInsets(Component c) {
+    return INSETS.get();
+  }
 }
@@ -15,30 +15,61 @@
  */
 package com.bulenkov.darcula.ui;
 
+import com.bulenkov.darcula.util.NinePatch;
+import com.bulenkov.darcula.util.RenderingProfile;
 import com.bulenkov.iconloader.util.DoubleColor;
 import com.bulenkov.iconloader.util.GraphicsUtil;
 import com.bulenkov.iconloader.util.Gray;
 import sun.swing.SwingUtilities2;
 
 import javax.swing.*;
+import javax.swing.border.Border;
 import javax.swing.border.EmptyBorder;
 import javax.swing.plaf.BorderUIResource;
 import javax.swing.plaf.ComponentUI;
 import javax.swing.plaf.basic.BasicProgressBarUI;
 import java.awt.*;
 import java.awt.geom.*;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * @author Konstantin Bulenkov
  */
 public class DarculaProgressBarUI extends BasicProgressBarUI {
+  private static final Border EMPTY_BORDER = new BorderUIResource(new EmptyBorder(0, 0, 0, 0));
 
   @SuppressWarnings({"MethodOverridesStaticMethodOfSuperclass", "UnusedDeclaration"})
   public static ComponentUI createUI(JComponent c) {
-    c.setBorder(new BorderUIResource(new EmptyBorder(0,0,0,0)));
+    c.setBorder(EMPTY_BORDER);
     return new DarculaProgressBarUI();
   }
 
+  private static final Color INDETERMINATE_BACKGROUND = new DoubleColor(Gray._240, Gray._128);
+  private static final Color INDETERMINATE_STRIPE = new DoubleColor(Gray._165, Gray._88);
+
+  // Stripe tiles and frame masks shared by all progress bars, least recently used dropped first
+  private static final int CACHE_SIZE = 16;
+  private static final Map<Long, TexturePaint[]> ourStripes = new LinkedHashMap<Long, TexturePaint[]>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Long, TexturePaint[]> eldest) {
+      return size() > CACHE_SIZE;
+    }
+  };
+  private static final Map<Long, NinePatch> ourFrames = new LinkedHashMap<Long, NinePatch>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Long, NinePatch> eldest) {
+      return size() > CACHE_SIZE;
+    }
+  };
+  private static final int FRAME_CORNER = 6;
+
+  private long myStripesKey = -1;
+  private TexturePaint[] myStripes;
+  private long myFrameKey = -1;
+  private NinePatch myFrame;
+
   protected volatile int offset = 0;
   @Override
   protected void paintIndeterminate(Graphics g, JComponent c) {
@@ -54,48 +85,166 @@ public class DarculaProgressBarUI extends BasicProgressBarUI {
       return;
     }
     //boxRect = getBox(boxRect);
-    g.setColor(new DoubleColor(Gray._240, Gray._128));
+    final Graphics2D g2 = (Graphics2D)g;
     int w = c.getWidth();
     int h = c.getPreferredSize().height;
-    g.fillRect(0, (c.getHeight() - h)/2, w, h);
-    g.setColor(new DoubleColor(Gray._165, Gray._88));
-    GraphicsUtil.setupAAPainting(g);
+    final int yOff = (c.getHeight() - h) / 2;
+    offset = (int)(DarculaProgressBarAnimator.getStep() % getPeriodLength());
+    final AffineTransform at = g2.getTransform();
+    // Cached stripes are antialiased, so low-bandwidth sessions paint them directly
+    final int scale = RenderingProfile.isLowBandwidth() ? 0 : NinePatch.getDeviceScale(at);
+    g2.translate(0, yOff);
+    if (scale == 0 || scale > 16 || h > 0xFFFF || getPeriodLength() > 0xFFF || w < 2 * FRAME_CORNER || h < 2 * FRAME_CORNER) {
+      paintIndeterminateDirectly(g2, c, w, h);
+      g2.translate(0, -yOff);
+    } else {
+      final int period = getPeriodLength();
+      g2.setPaint(getStripes(period, h, scale)[offset % period]);
+      g2.fillRect(0, 0, w, h);
+      g2.translate(0, -yOff);
+      getFrame(c.getParent().getBackground(), scale).paint(g2, at, scale, 0, yOff, w, h);
+    }
+    // Deal with possible text painting
+    if (progressBar.isStringPainted()) {
+      if (progressBar.getOrientation() == SwingConstants.HORIZONTAL) {
+        paintString(g, b.left, b.top, barRectWidth, barRectHeight, boxRect.x, boxRect.width);
+      }
+      else {
+        paintString(g, b.left, b.top, barRectWidth, barRectHeight, boxRect.y, boxRect.height);
+      }
+    }
+  }
+
+  /**
+   * Paints the stripes and the frame shape by shape; used when the graphics
+   * cannot be blitted to without resampling.
+   */
+  private void paintIndeterminateDirectly(Graphics2D g, JComponent c, int w, int h) {
+    g.setColor(INDETERMINATE_BACKGROUND);
+    g.fillRect(0, 0, w, h);
+    RenderingProfile.setupAAPainting(g, c);
+    paintStripes(g, getPeriodLength(), h, -offset, Math.max(c.getWidth(), c.getHeight()));
+    paintFrame(g, c.getParent().getBackground(), w, h);
+  }
+
+  private static void paintStripes(Graphics2D g, int period, int h, int from, int to) {
+    g.setColor(INDETERMINATE_STRIPE);
     Path2D.Double path = new Path2D.Double();
-    int ww = getPeriodLength() / 2;
-    g.translate(0, (c.getHeight() - h) / 2);
+    int ww = period / 2;
     path.moveTo(0, 0);
     path.lineTo(ww, 0);
     path.lineTo(ww - h / 2, h);
     path.lineTo(-h / 2, h);
     path.lineTo(0, 0);
     path.closePath();
-    int x = -offset;
-    while (x < Math.max(c.getWidth(), c.getHeight())) {
+    int x = from;
+    while (x < to) {
       g.translate(x, 0);
-      ((Graphics2D)g).fill(path);
+      g.fill(path);
       g.translate(-x, 0);
-      x+= getPeriodLength();
+      x += period;
     }
-    offset = (offset + 1) % getPeriodLength();
+  }
+
+  private static void paintFrame(Graphics2D g, Color parentBackground, int w, int h) {
     Area area = new Area(new Rectangle2D.Double(0, 0, w, h));
     area.subtract(new Area(new RoundRectangle2D.Double(1,1,w-2, h-2, 8,8)));
-    ((Graphics2D)g).setPaint(Gray._128);
-    ((Graphics2D)g).fill(area);
+    g.setPaint(Gray._128);
+    g.fill(area);
     area.subtract(new Area(new RoundRectangle2D.Double(0, 0, w, h, 9, 9)));
-    ((Graphics2D)g).setPaint(c.getParent().getBackground());
-    ((Graphics2D)g).fill(area);
+    g.setPaint(parentBackground);
+    g.fill(area);
     g.drawRoundRect(1, 1, w - 3, h - 3, 8, 8);
-    g.translate(0, -(c.getHeight() - h) / 2);
+  }
 
-    // Deal with possible text painting
-    if (progressBar.isStringPainted()) {
-      if (progressBar.getOrientation() == SwingConstants.HORIZONTAL) {
-        paintString(g, b.left, b.top, barRectWidth, barRectHeight, boxRect.x, boxRect.width);
+  /**
+   * Returns one stripe texture per animation offset, so that painting a frame
+   * doesn't allocate anything.
+   */
+  private TexturePaint[] getStripes(int period, int h, int scale) {
+    // the stripe color alone tells the light and dark variants apart
+    final long key = (INDETERMINATE_STRIPE.getRGB() & 0xFFFFFFL)
+                     | (long)h << 24
+                     | (long)period << 40
+                     | (long)scale << 52;
+    if (key != myStripesKey) {
+      synchronized (ourStripes) {
+        TexturePaint[] stripes = ourStripes.get(key);
+        if (stripes == null) {
+          stripes = createStripes(period, h, scale);
+          ourStripes.put(key, stripes);
+        }
+        myStripes = stripes;
+        myStripesKey = key;
       }
-      else {
-        paintString(g, b.left, b.top, barRectWidth, barRectHeight, boxRect.y, boxRect.height);
+    }
+    return myStripes;
+  }
+
+  /**
+   * Renders the tiles at full quality even while painting is simplified, as
+   * they outlive it.
+   */
+  private static TexturePaint[] createStripes(int period, int h, int scale) {
+    final BufferedImage tile = new BufferedImage(period * scale, h * scale, BufferedImage.TYPE_INT_RGB);
+    final Graphics2D g = tile.createGraphics();
+    g.scale(scale, scale);
+    g.setColor(INDETERMINATE_BACKGROUND);
+    g.fillRect(0, 0, period, h);
+    GraphicsUtil.setupAAPainting(g);
+    // stripes lean left, so the ones starting right of the tile still cover its bottom edge
+    paintStripes(g, period, h, -period, period + h / 2 + 1);
+    g.dispose();
+
+    final TexturePaint[] stripes = new TexturePaint[period];
+    for (int i = 0; i < period; i++) {
+      stripes[i] = new TexturePaint(tile, new Rectangle2D.Double(-i, 0, period, h));
+    }
+    return stripes;
+  }
+
+  private NinePatch getFrame(Color parentBackground, int scale) {
+    final long key = (parentBackground.getRGB() & 0xFFFFFFFFL) | (long)scale << 32;
+    if (key != myFrameKey) {
+      synchronized (ourFrames) {
+        NinePatch frame = ourFrames.get(key);
+        if (frame == null) {
+          final int size = 2 * FRAME_CORNER + 1;
+          final BufferedImage image = NinePatch.createImage(size * scale, size * scale);
+          final Graphics2D g = image.createGraphics();
+          g.scale(scale, scale);
+          GraphicsUtil.setupAAPainting(g);
+          paintFrame(g, parentBackground, size, size);
+          g.dispose();
+          final int slice = FRAME_CORNER * scale;
+          frame = new NinePatch(image, slice, slice, slice, slice);
+          ourFrames.put(key, frame);
+        }
+        myFrame = frame;
+        myFrameKey = key;
       }
     }
+    return myFrame;
+  }
+
+  /**
+   * Hands the bar over to the shared {@link DarculaProgressBarAnimator}
+   * instead of starting a timer per bar.
+   */
+  @Override
+  protected void startAnimationTimer() {
+    DarculaProgressBarAnimator.register(progressBar);
+  }
+
+  @Override
+  protected void stopAnimationTimer() {
+    DarculaProgressBarAnimator.unregister(progressBar);
+  }
+
+  @Override
+  public void uninstallUI(JComponent c) {
+    super.uninstallUI(c);
+    DarculaProgressBarAnimator.unregister((JProgressBar)c);
   }
 
   @Override
@@ -108,7 +257,7 @@ public class DarculaProgressBarUI extends BasicProgressBarUI {
       super.paintDeterminate(g, c);
       return;
     }
-    GraphicsUtil.setupAAPainting(g);
+    RenderingProfile.setupAAPainting(g, c);
     Insets b = progressBar.getInsets(); // area for border
     final int w = progressBar.getWidth();
     final int h = progressBar.getPreferredSize().height;
@@ -16,7 +16,9 @@
 
 package com.bulenkov.darcula.ui;
 
+import com.bulenkov.darcula.DarculaPalette;
 import com.bulenkov.darcula.DarculaUIUtil;
+import com.bulenkov.darcula.util.RenderingProfile;
 import com.bulenkov.iconloader.util.*;
 import sun.swing.MenuItemLayoutHelper;
 
@@ -41,7 +43,7 @@ public class DarculaRadioButtonMenuItemUI extends DarculaMenuItemUIBase {
   protected void paintCheckIcon(Graphics g2, MenuItemLayoutHelper lh, MenuItemLayoutHelper.LayoutResult lr, Color holdc, Color foreground) {
     Graphics2D g = (Graphics2D) g2;
     AbstractButton b = lh.getMenuItem();
-    final GraphicsConfig config = GraphicsUtil.setupAAPainting(g);
+    final GraphicsConfig config = RenderingProfile.setupAAPainting(g, b);
 
     g.translate(lr.getCheckRect().x+1, lr.getCheckRect().y+1);
 
@@ -56,7 +58,7 @@ public class DarculaRadioButtonMenuItemUI extends DarculaMenuItemUIBase {
 
     //setup AA for lines
     final boolean focus = b.hasFocus();
-    g.setColor(UIManager.getColor("CheckBox.darcula.checkBoxBackgroundColor"));
+    g.setColor(DarculaPalette.getInstance().checkBoxBackground);
     if (focus) {
       g.fillOval(0, 1, w, h);
     } else {
@@ -70,13 +72,13 @@ public class DarculaRadioButtonMenuItemUI extends DarculaMenuItemUIBase {
         DarculaUIUtil.paintFocusOval(g, 0, 1, w, h);
       }
     } else {
-      g.setColor(UIManager.getColor("CheckBox.darcula.checkBoxBorderColor"));
+      g.setColor(DarculaPalette.getInstance().checkBoxBorder);
       g.drawOval(0, 1, w - 1, h - 1);
     }
 
     if (b.isSelected()) {
       final boolean enabled = b.isEnabled();
-      g.setColor(UIManager.getColor(enabled ? "RadioButton.darcula.selectionEnabledColor" : "RadioButton.darcula.selectionDisabledColor")); //Gray._170 : Gray._120);
+      g.setColor(enabled ? DarculaPalette.getInstance().radioSelection : DarculaPalette.getInstance().radioSelectionDisabled); //Gray._170 : Gray._120);
       g.fillOval(w/2 - rad/2, h/2 - 1, rad, rad);
     }
     config.restore();
@@ -15,7 +15,10 @@
  */
 package com.bulenkov.darcula.ui;
 
+import com.bulenkov.darcula.DarculaPalette;
 import com.bulenkov.darcula.DarculaUIUtil;
+import com.bulenkov.darcula.util.PaintProfiler;
+import com.bulenkov.darcula.util.RenderingProfile;
 import com.bulenkov.iconloader.util.*;
 import sun.swing.SwingUtilities2;
 
@@ -31,59 +34,110 @@ import java.awt.*;
  * @author Konstantin Bulenkov
  */
 public class DarculaRadioButtonUI extends MetalRadioButtonUI {
+  private static final Icon DEFAULT_ICON = new IconUIResource(EmptyIcon.create(20));
+  // Like MetalRadioButtonUI, keeps no per-button state and is shared
+  private static final DarculaRadioButtonUI ourInstance = new DarculaRadioButtonUI();
+
   @SuppressWarnings("MethodOverridesStaticMethodOfSuperclass")
   public static ComponentUI createUI(JComponent c) {
-    return new DarculaRadioButtonUI();
+    return ourInstance;
   }
 
+  private final DarculaGlyphAtlas.Painter myGlyphPainter = new DarculaGlyphAtlas.Painter() {
+    @Override
+    public void paintGlyph(Graphics2D g, int x, int y, int iconWidth, int iconHeight, Color background, int state) {
+      paintRadioButton(g, x, y, iconWidth, iconHeight, state);
+    }
+  };
+
   @Override
-  public synchronized void paint(Graphics g2d, JComponent c) {
-    Graphics2D g = (Graphics2D)g2d;
-    AbstractButton b = (AbstractButton) c;
-    ButtonModel model = b.getModel();
-
-    Dimension size = c.getSize();
-    Font f = c.getFont();
-    g.setFont(f);
-    FontMetrics fm = SwingUtilities2.getFontMetrics(c, g, f);
-
-    Rectangle viewRect = new Rectangle(size);
-    Rectangle iconRect = new Rectangle();
-    Rectangle textRect = new Rectangle();
-
-    Insets i = c.getInsets();
-    viewRect.x += i.left;
-    viewRect.y += i.top;
-    viewRect.width -= (i.right + viewRect.x);
-    viewRect.height -= (i.bottom + viewRect.y);
-
-
-    String text = SwingUtilities.layoutCompoundLabel(
-      c, fm, b.getText(), getDefaultIcon(),
-      b.getVerticalAlignment(), b.getHorizontalAlignment(),
-      b.getVerticalTextPosition(), b.getHorizontalTextPosition(),
-      viewRect, iconRect, textRect, b.getIconTextGap());
-
-    // fill background
-    if(c.isOpaque()) {
-      g.setColor(b.getBackground());
-      g.fillRect(0,0, size.width, size.height);
+  public void paint(Graphics g2d, JComponent c) {
+    final int token = PaintProfiler.start();
+    try {
+      Graphics2D g = (Graphics2D)g2d;
+      AbstractButton b = (AbstractButton) c;
+      ButtonModel model = b.getModel();
+
+      Dimension size = c.getSize();
+      Font f = c.getFont();
+      g.setFont(f);
+      FontMetrics fm = SwingUtilities2.getFontMetrics(c, g, f);
+
+      Rectangle viewRect = new Rectangle(size);
+      Rectangle iconRect = new Rectangle();
+      Rectangle textRect = new Rectangle();
+
+      Insets i = c.getInsets();
+      viewRect.x += i.left;
+      viewRect.y += i.top;
+      viewRect.width -= (i.right + viewRect.x);
+      viewRect.height -= (i.bottom + viewRect.y);
+
+
+      String text = SwingUtilities.layoutCompoundLabel(
+        c, fm, b.getText(), getDefaultIcon(),
+        b.getVerticalAlignment(), b.getHorizontalAlignment(),
+        b.getVerticalTextPosition(), b.getHorizontalTextPosition(),
+        viewRect, iconRect, textRect, b.getIconTextGap());
+
+      // fill background
+      if(c.isOpaque()) {
+        g.setColor(b.getBackground());
+        g.fillRect(0,0, size.width, size.height);
+      }
+
+      final int state = DarculaGlyphAtlas.getState(b.isSelected(), b.isEnabled(), b.hasFocus());
+      // The atlas only holds the glyphs of this class; a subclass may override paintRadioButton
+      if (getClass() == DarculaRadioButtonUI.class) {
+        DarculaGlyphAtlas.paint(g, myGlyphPainter, DarculaGlyphAtlas.RADIO_BUTTON,
+                                iconRect.x, iconRect.y, iconRect.width, iconRect.height, null, state);
+      } else {
+        paintRadioButton(g, iconRect.x, iconRect.y, iconRect.width, iconRect.height, state);
+      }
+
+      // Draw the Text
+      if(text != null) {
+        View v = (View) c.getClientProperty(BasicHTML.propertyKey);
+        if (v != null) {
+          v.paint(g, textRect);
+        } else {
+          int mnemIndex = b.getDisplayedMnemonicIndex();
+          if(model.isEnabled()) {
+            // *** paint the text normally
+            g.setColor(b.getForeground());
+          } else {
+            // *** paint the text disabled
+            g.setColor(getDisabledTextColor());
+          }
+          SwingUtilities2.drawStringUnderlineCharAt(c, g, text,
+                                                    mnemIndex, textRect.x, textRect.y + fm.getAscent());
+        }
+      }
+    }
+    finally {
+      PaintProfiler.stop("DarculaRadioButtonUI.paint", c, token);
     }
+  }
 
+  /**
+   * Paints the radio button glyph into the icon bounds.  The result is cached,
+   * so it must depend on nothing but the arguments and the UI defaults.
+   */
+  protected void paintRadioButton(Graphics2D g, int iconX, int iconY, int iconWidth, int iconHeight, int state) {
     int rad = 5;
 
     // Paint the radio button
-    final int x = iconRect.x + (rad-1)/2;
-    final int y = iconRect.y + (rad-1)/2;
-    final int w = iconRect.width - (rad + 5) / 2;
-    final int h = iconRect.height - (rad + 5) / 2;
+    final int x = iconX + (rad-1)/2;
+    final int y = iconY + (rad-1)/2;
+    final int w = iconWidth - (rad + 5) / 2;
+    final int h = iconHeight - (rad + 5) / 2;
 
     g.translate(x, y);
 
     //setup AA for lines
-    final GraphicsConfig config = GraphicsUtil.setupAAPainting(g);
-    final boolean focus = b.hasFocus();
-    g.setColor(UIManager.getColor("CheckBox.darcula.checkBoxBackgroundColor"));
+    final GraphicsConfig config = RenderingProfile.setupAAPainting(g, null);
+    final boolean focus = (state & DarculaGlyphAtlas.FOCUSED) != 0;
+    g.setColor(DarculaPalette.getInstance().checkBoxBackground);
     if (focus) {
       g.fillOval(0, 1, w, h);
     } else {
@@ -97,40 +151,21 @@ public class DarculaRadioButtonUI extends MetalRadioButtonUI {
         DarculaUIUtil.paintFocusOval(g, 0, 1, w, h);
       }
     } else {
-        g.setColor(UIManager.getColor("CheckBox.darcula.checkBoxBorderColor"));
+        g.setColor(DarculaPalette.getInstance().checkBoxBorder);
         g.drawOval(0, 1, w - 1, h - 1);
     }
 
-    if (b.isSelected()) {
-      final boolean enabled = b.isEnabled();
-      g.setColor(UIManager.getColor(enabled ? "RadioButton.darcula.selectionEnabledColor" : "RadioButton.darcula.selectionDisabledColor")); //Gray._170 : Gray._120);
+    if ((state & DarculaGlyphAtlas.SELECTED) != 0) {
+      final boolean enabled = (state & DarculaGlyphAtlas.ENABLED) != 0;
+      g.setColor(enabled ? DarculaPalette.getInstance().radioSelection : DarculaPalette.getInstance().radioSelectionDisabled); //Gray._170 : Gray._120);
       g.fillOval(w/2 - rad/2, h/2 - 1, rad, rad);
     }
     config.restore();
     g.translate(-x, -y);
-
-    // Draw the Text
-    if(text != null) {
-      View v = (View) c.getClientProperty(BasicHTML.propertyKey);
-      if (v != null) {
-        v.paint(g, textRect);
-      } else {
-        int mnemIndex = b.getDisplayedMnemonicIndex();
-        if(model.isEnabled()) {
-          // *** paint the text normally
-          g.setColor(b.getForeground());
-        } else {
-          // *** paint the text disabled
-          g.setColor(getDisabledTextColor());
-        }
-        SwingUtilities2.drawStringUnderlineCharAt(c, g, text,
-                                                  mnemIndex, textRect.x, textRect.y + fm.getAscent());
-      }
-    }
   }
 
   @Override
   public Icon getDefaultIcon() {
-    return new IconUIResource(EmptyIcon.create(20));
+    return DEFAULT_ICON;
   }
 }
@@ -15,9 +15,11 @@
  */
 package com.bulenkov.darcula.ui;
 
+import com.bulenkov.darcula.DarculaPalette;
+import com.bulenkov.darcula.util.SharedInsets;
+
 import javax.swing.*;
 import javax.swing.border.AbstractBorder;
-import javax.swing.plaf.InsetsUIResource;
 import javax.swing.plaf.UIResource;
 import java.awt.*;
 
@@ -29,12 +31,13 @@ import java.awt.*;
 public class DarculaRootPaneBorder extends AbstractBorder implements UIResource {
 
     private static final int SIZE = 2;
+    private static final SharedInsets INSETS = new SharedInsets(SIZE, SIZE, SIZE, SIZE);
     private static final Stroke STROKE = new BasicStroke(SIZE);
 
     @Override
     public void paintBorder(Component c, Graphics g, int x, int y, int width, int height) {
 
-        g.setColor(UIManager.getColor("Separator.foreground"));
+        g.setColor(DarculaPalette.getInstance().separatorForeground);
 
         Graphics2D g2d = (Graphics2D)g;
         Stroke origStroke = g2d.getStroke();
@@ -45,6 +48,11 @@ public class DarculaRootPaneBorder extends AbstractBorder implements UIResource
 
     @Override
     public Insets getBorderInsets(Component c) {
-        return new InsetsUIResource(SIZE, SIZE, SIZE, SIZE);
+        return INSETS.get();
+    }
+
+    @Override
+    public Insets getBorderInsets(Component c, Insets insets) {
+        return INSETS.fill(insets);
     }
 }
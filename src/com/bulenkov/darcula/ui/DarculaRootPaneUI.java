@@ -15,6 +15,10 @@
  */
 package com.bulenkov.darcula.ui;
 
+import com.bulenkov.darcula.util.FrameClock;
+import com.bulenkov.darcula.util.RenderingProfile;
+import com.bulenkov.darcula.util.ScreenTopology;
+
 import javax.swing.*;
 import javax.swing.event.MouseInputAdapter;
 import javax.swing.event.MouseInputListener;
@@ -27,6 +31,7 @@ import java.beans.PropertyChangeListener;
 import java.security.AccessController;
 import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * @author Konstantin Bulenkov
@@ -40,6 +45,12 @@ public class DarculaRootPaneUI extends BasicRootPaneUI {
 
   private static final int BORDER_DRAG_THICKNESS = 5;
 
+  // Frames without a new size after which a live resize counts as settled
+  private static final int RESIZE_SETTLE_FRAMES = 8;
+
+  private static final AtomicLong ourMoveEvents = new AtomicLong();
+  private static final AtomicLong ourAppliedMoves = new AtomicLong();
+
   private Window myWindow;
 
   private JComponent myTitlePane;
@@ -71,6 +82,26 @@ public class DarculaRootPaneUI extends BasicRootPaneUI {
     return new DarculaRootPaneUI();
   }
 
+  /**
+   * Returns how many title bar drag events asked to move a window.
+   */
+  public static long getMoveEventCount() {
+    return ourMoveEvents.get();
+  }
+
+  /**
+   * Returns how many window moves were actually applied; drag events are
+   * coalesced to at most one move per frame.
+   */
+  public static long getAppliedMoveCount() {
+    return ourAppliedMoves.get();
+  }
+
+  public static void resetMoveStatistics() {
+    ourMoveEvents.set(0);
+    ourAppliedMoves.set(0);
+  }
+
   @Override
   public void installUI(JComponent c) {
     super.installUI(c);
@@ -137,10 +168,16 @@ public class DarculaRootPaneUI extends BasicRootPaneUI {
   }
 
   private void uninstallWindowListeners(JRootPane root) {
+    if (myMouseInputListener instanceof MouseInputHandler) {
+      ((MouseInputHandler)myMouseInputListener).stopLiveResize();
+    }
     if (myWindow != null) {
       myWindow.removeMouseListener(myMouseInputListener);
       myWindow.removeMouseMotionListener(myMouseInputListener);
     }
+    if (myTitleMouseInputListener instanceof TitleMouseInputHandler) {
+      ((TitleMouseInputHandler)myTitleMouseInputListener).stopMove();
+    }
     if (myTitlePane != null) {
       myTitlePane.removeMouseListener(myTitleMouseInputListener);
       myTitlePane.removeMouseMotionListener(myTitleMouseInputListener);
@@ -217,6 +254,35 @@ public class DarculaRootPaneUI extends BasicRootPaneUI {
           }
 
           myWindowComponentListener = new ComponentAdapter() {
+            // Moves and resizes queued before the update runs share it
+            private boolean myUpdatePending;
+
+            private final Runnable myPositionUpdate = new Runnable() {
+              public void run() {
+                myUpdatePending = false;
+                if (myWindow == null) {
+                  return;
+                }
+
+                if (!myWindow.isShowing()
+                    || !myWindow.isDisplayable()) {
+                  currentRootPaneGC = null;
+                  return;
+                }
+
+                if (ScreenTopology.getScreenCount() == 1) {
+                  return;
+                }
+                final Point location = myWindow.getLocationOnScreen();
+                final GraphicsConfiguration gc = ScreenTopology.getConfigurationAt(location.x + myWindow.getWidth() / 2,
+                                                                                   location.y + myWindow.getHeight() / 2);
+                if (gc != null && gc != currentRootPaneGC) {
+                  currentRootPaneGC = gc;
+                  setMaximized();
+                }
+              }
+            };
+
             @Override
             public void componentMoved(ComponentEvent e) {
               processNewPosition();
@@ -228,42 +294,11 @@ public class DarculaRootPaneUI extends BasicRootPaneUI {
             }
 
             private void processNewPosition() {
-              //noinspection SSBasedInspection
-              SwingUtilities.invokeLater(new Runnable() {
-                public void run() {
-                  if (myWindow == null) {
-                    return;
-                  }
-
-                  if (!myWindow.isShowing()
-                      || !myWindow.isDisplayable()) {
-                    currentRootPaneGC = null;
-                    return;
-                  }
-
-                  GraphicsEnvironment ge = GraphicsEnvironment
-                    .getLocalGraphicsEnvironment();
-                  GraphicsDevice[] gds = ge
-                    .getScreenDevices();
-                  if (gds.length == 1) {
-                    return;
-                  }
-                  Point midLoc = new Point(myWindow.getLocationOnScreen().x + myWindow.getWidth() / 2,
-                                           myWindow.getLocationOnScreen().y + myWindow.getHeight() / 2);
-
-                  for (GraphicsDevice gd : gds) {
-                    GraphicsConfiguration gc = gd.getDefaultConfiguration();
-                    Rectangle bounds = gc.getBounds();
-                    if (bounds.contains(midLoc)) {
-                      if (gc != currentRootPaneGC) {
-                        currentRootPaneGC = gc;
-                        setMaximized();
-                      }
-                      break;
-                    }
-                  }
-                }
-              });
+              if (!myUpdatePending) {
+                myUpdatePending = true;
+                //noinspection SSBasedInspection
+                SwingUtilities.invokeLater(myPositionUpdate);
+              }
             }
           };
 
@@ -655,6 +690,18 @@ public class DarculaRootPaneUI extends BasicRootPaneUI {
     private int dragWidth;
     private int dragHeight;
 
+    // Live resize: the latest requested bounds are applied once per frame,
+    // and the delegates paint simplified until the drag settles
+    private Window resizeWindow;
+    private Rectangle resizeBounds;
+    private int resizeIdleFrames;
+    private final FrameClock.Listener resizeTicker = new FrameClock.Listener() {
+      @Override
+      public void onFrame(long now) {
+        applyResize();
+      }
+    };
+
     @SuppressWarnings("unchecked")
     private final PrivilegedExceptionAction getLocationAction = new PrivilegedExceptionAction() {
       public Object run() throws HeadlessException {
@@ -711,6 +758,7 @@ public class DarculaRootPaneUI extends BasicRootPaneUI {
     }
 
     public void mouseReleased(MouseEvent ev) {
+      finishLiveResize();
       if ((dragCursor != 0)
           && (myWindow != null)
           && !myWindow.isValid()) {
@@ -840,16 +888,62 @@ public class DarculaRootPaneUI extends BasicRootPaneUI {
           default:
             break;
         }
-        if (!r.equals(startBounds)) {
-          w.setBounds(r);
-          if (Toolkit.getDefaultToolkit().isDynamicLayoutActive()) {
-            w.validate();
-            getRootPane().repaint();
+        if (!r.equals(startBounds) || resizeBounds != null) {
+          resizeBounds = r;
+          resizeIdleFrames = 0;
+          if (resizeWindow == null) {
+            resizeWindow = w;
+            RenderingProfile.beginLiveResize(getRootPane());
+            FrameClock.addListener(resizeTicker);
           }
         }
       }
     }
 
+    private void applyResize() {
+      if (resizeBounds == null) {
+        if (++resizeIdleFrames >= RESIZE_SETTLE_FRAMES) {
+          finishLiveResize();
+        }
+        return;
+      }
+      final Rectangle r = resizeBounds;
+      resizeBounds = null;
+      if (!r.equals(resizeWindow.getBounds())) {
+        resizeWindow.setBounds(r);
+        if (Toolkit.getDefaultToolkit().isDynamicLayoutActive()) {
+          resizeWindow.validate();
+          getRootPane().repaint();
+        }
+      }
+    }
+
+    /**
+     * Applies the last requested bounds and repaints once at full quality.
+     */
+    private void finishLiveResize() {
+      final Window w = resizeWindow;
+      if (w == null) {
+        return;
+      }
+      final Rectangle r = resizeBounds;
+      stopLiveResize();
+      if (r != null) {
+        w.setBounds(r);
+      }
+      w.validate();
+      getRootPane().repaint();
+    }
+
+    void stopLiveResize() {
+      if (resizeWindow != null) {
+        FrameClock.removeListener(resizeTicker);
+        RenderingProfile.endLiveResize(getRootPane());
+        resizeWindow = null;
+        resizeBounds = null;
+      }
+    }
+
     private CursorState cursorState = CursorState.NIL;
 
     public void mouseEntered(MouseEvent ev) {
@@ -945,6 +1039,21 @@ public class DarculaRootPaneUI extends BasicRootPaneUI {
   private class TitleMouseInputHandler extends MouseInputAdapter {
     private Point dragOffset = new Point(0, 0);
 
+    // The latest requested location, applied once per frame
+    private Point moveTarget;
+    private boolean moving;
+    private final FrameClock.Listener moveTicker = new FrameClock.Listener() {
+      @Override
+      public void onFrame(long now) {
+        if (moveTarget == null) {
+          stopMove();
+        }
+        else {
+          applyMove();
+        }
+      }
+    };
+
     @Override
     public void mousePressed(MouseEvent ev) {
       JRootPane rootPane = getRootPane();
@@ -982,12 +1091,51 @@ public class DarculaRootPaneUI extends BasicRootPaneUI {
         int frameState = f.getExtendedState();
         
         if (((frameState & Frame.MAXIMIZED_BOTH) == 0)) {
-          myWindow.setLocation(eventLocationOnScreen.x - dragOffset.x, eventLocationOnScreen.y - dragOffset.y);
+          scheduleMove(eventLocationOnScreen.x - dragOffset.x, eventLocationOnScreen.y - dragOffset.y);
         }
       }
       else {
-        myWindow.setLocation(eventLocationOnScreen.x - dragOffset.x, eventLocationOnScreen.y - dragOffset.y);
+        scheduleMove(eventLocationOnScreen.x - dragOffset.x, eventLocationOnScreen.y - dragOffset.y);
+      }
+    }
+
+    @Override
+    public void mouseReleased(MouseEvent e) {
+      if (moveTarget != null) {
+        applyMove();
+      }
+      stopMove();
+    }
+
+    private void scheduleMove(int x, int y) {
+      ourMoveEvents.incrementAndGet();
+      if (moveTarget == null) {
+        moveTarget = new Point(x, y);
+      }
+      else {
+        moveTarget.setLocation(x, y);
+      }
+      if (!moving) {
+        moving = true;
+        FrameClock.addListener(moveTicker);
+      }
+    }
+
+    private void applyMove() {
+      final Point target = moveTarget;
+      moveTarget = null;
+      if (myWindow != null && (myWindow.getX() != target.x || myWindow.getY() != target.y)) {
+        myWindow.setLocation(target);
+        ourAppliedMoves.incrementAndGet();
+      }
+    }
+
+    void stopMove() {
+      if (moving) {
+        FrameClock.removeListener(moveTicker);
+        moving = false;
       }
+      moveTarget = null;
     }
 
     @Override
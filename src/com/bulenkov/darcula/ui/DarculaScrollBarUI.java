@@ -15,7 +15,10 @@
  */
 package com.bulenkov.darcula.ui;
 
+import com.bulenkov.darcula.DarculaPalette;
 import com.bulenkov.darcula.util.Animator;
+import com.bulenkov.darcula.util.PaintProfiler;
+import com.bulenkov.darcula.util.RenderingProfile;
 import com.bulenkov.iconloader.util.DoubleColor;
 import com.bulenkov.iconloader.util.Gray;
 import com.bulenkov.iconloader.util.UIUtil;
@@ -38,23 +41,23 @@ public class DarculaScrollBarUI extends BasicScrollBarUI {
   }
 
   public static DoubleColor getGradientLightColor() {
-    return new DoubleColor(Gray._251, Gray._95);
+    return DarculaPalette.getInstance().scrollBarGradientLight;
   }
 
   public static DoubleColor getGradientDarkColor() {
-    return new DoubleColor(Gray._215, Gray._80);
+    return DarculaPalette.getInstance().scrollBarGradientDark;
   }
 
   private static DoubleColor getGradientThumbBorderColor() {
-    return new DoubleColor(Gray._201, Gray._85);
+    return DarculaPalette.getInstance().scrollBarThumbBorder;
   }
 
   public static DoubleColor getTrackBackground() {
-    return new DoubleColor(Gray._245, UIUtil.getListBackground());
+    return DarculaPalette.getInstance().scrollBarTrackBackground;
   }
 
   public static DoubleColor getTrackBorderColor() {
-    return new DoubleColor(Gray._230, UIUtil.getListBackground());
+    return DarculaPalette.getInstance().scrollBarTrackBorder;
   }
 
   private static final BasicStroke BORDER_STROKE = new BasicStroke();
@@ -138,6 +141,14 @@ public class DarculaScrollBarUI extends BasicScrollBarUI {
       myAnimator.suspend();
       myAnimationColorShift = getAnimationColorShift();
     }
+    else if (RenderingProfile.isLowBandwidth()) {
+      // No fade-out, the thumb drops its highlight at once
+      myAnimator.suspend();
+      if (myAnimationColorShift != 0 && scrollbar != null) {
+        myAnimationColorShift = 0;
+        scrollbar.repaint(getThumbBounds());
+      }
+    }
     else {
       myAnimator.resume();
     }
@@ -218,15 +229,21 @@ public class DarculaScrollBarUI extends BasicScrollBarUI {
 
   @Override
   protected void paintTrack(Graphics g, JComponent c, Rectangle bounds) {
-    g.setColor(getTrackBackground());
-    g.fillRect(bounds.x, bounds.y, bounds.width, bounds.height);
+    final int token = PaintProfiler.start();
+    try {
+      g.setColor(getTrackBackground());
+      g.fillRect(bounds.x, bounds.y, bounds.width, bounds.height);
 
-    g.setColor(getTrackBorderColor());
-    if (isVertical()) {
-      g.drawLine(bounds.x, bounds.y, bounds.x, bounds.y + bounds.height);
+      g.setColor(getTrackBorderColor());
+      if (isVertical()) {
+        g.drawLine(bounds.x, bounds.y, bounds.x, bounds.y + bounds.height);
+      }
+      else {
+        g.drawLine(bounds.x, bounds.y, bounds.x + bounds.width, bounds.y);
+      }
     }
-    else {
-      g.drawLine(bounds.x, bounds.y, bounds.x + bounds.width, bounds.y);
+    finally {
+      PaintProfiler.stop("DarculaScrollBarUI.paintTrack", c, token);
     }
   }
 
@@ -261,10 +278,15 @@ public class DarculaScrollBarUI extends BasicScrollBarUI {
     if (thumbBounds.isEmpty() || !scrollbar.isEnabled()) {
       return;
     }
-
-    g.translate(thumbBounds.x, thumbBounds.y);
-    paintMaxiThumb((Graphics2D)g, thumbBounds);
-    g.translate(-thumbBounds.x, -thumbBounds.y);
+    final int token = PaintProfiler.start();
+    try {
+      g.translate(thumbBounds.x, thumbBounds.y);
+      paintMaxiThumb((Graphics2D)g, thumbBounds);
+      g.translate(-thumbBounds.x, -thumbBounds.y);
+    }
+    finally {
+      PaintProfiler.stop("DarculaScrollBarUI.paintThumb", c, token);
+    }
   }
 
   private void paintMaxiThumb(Graphics2D g, Rectangle thumbBounds) {
@@ -287,7 +309,10 @@ public class DarculaScrollBarUI extends BasicScrollBarUI {
     final Color start = adjustColor(getGradientLightColor());
     final Color end = adjustColor(getGradientDarkColor());
 
-    if (vertical) {
+    if (RenderingProfile.isSimplified(scrollbar)) {
+      paint = start;
+    }
+    else if (vertical) {
       paint = new GradientPaint(1, 0, start, w + 1, 0, end);
     }
     else {
@@ -15,19 +15,26 @@
  */
 package com.bulenkov.darcula.ui;
 
+import com.bulenkov.darcula.DarculaPalette;
 import com.bulenkov.darcula.DarculaUIUtil;
+import com.bulenkov.darcula.util.SharedInsets;
 import com.bulenkov.iconloader.util.GraphicsConfig;
 
-import javax.swing.border.Border;
-import javax.swing.plaf.InsetsUIResource;
+import javax.swing.border.AbstractBorder;
 import javax.swing.plaf.UIResource;
 import java.awt.*;
 
-public class DarculaScrollPaneBorder implements Border, UIResource {
+public class DarculaScrollPaneBorder extends AbstractBorder implements UIResource {
+  private static final SharedInsets INSETS = new SharedInsets(2, 2, 2, 2);
 
   @Override
   public Insets getBorderInsets(Component c) {
-    return new InsetsUIResource(2, 2, 2, 2);
+    return INSETS.get();
+  }
+
+  @Override
+  public Insets getBorderInsets(Component c, Insets insets) {
+    return INSETS.fill(insets);
   }
 
   @Override
@@ -46,7 +53,7 @@ public class DarculaScrollPaneBorder implements Border, UIResource {
       DarculaUIUtil.paintFocusRing(g, 2, 2, width - 4, height - 4);
     }
     else {
-       g.setColor(new Color(0x535353));
+       g.setColor(DarculaPalette.INACTIVE_BORDER);
        g.drawRect(1, 1, width - 2, height - 2);
     }
     g.translate(-x, -y);
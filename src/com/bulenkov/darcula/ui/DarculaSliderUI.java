@@ -16,8 +16,9 @@
 
 package com.bulenkov.darcula.ui;
 
+import com.bulenkov.darcula.DarculaPalette;
+import com.bulenkov.darcula.util.RenderingProfile;
 import com.bulenkov.iconloader.util.GraphicsConfig;
-import com.bulenkov.iconloader.util.GraphicsUtil;
 import com.intellij.util.ui.JBDimension;
 import com.intellij.util.ui.JBUI;
 import org.jetbrains.annotations.NotNull;
@@ -56,7 +57,7 @@ public class DarculaSliderUI extends BasicSliderUI {
         Rectangle trackBounds = trackRect;
         final int arc = JBUI.scale(6);
         int trackSize = JBUI.scale(6);
-        final GraphicsConfig config = GraphicsUtil.setupAAPainting(g);
+        final GraphicsConfig config = RenderingProfile.setupAAPainting(g, slider);
         final Color bg = getTrackBackground();
         final Color selection = getThumbColor();
         if (slider.getOrientation() == JSlider.HORIZONTAL) {
@@ -97,17 +98,17 @@ public class DarculaSliderUI extends BasicSliderUI {
 
     @NotNull
     protected Color getTrackBackground() {
-        return UIManager.getColor("Slider.trackBackground");
+        return DarculaPalette.getInstance().sliderTrackBackground;
     }
 
     @NotNull
     protected Color getSelectedTrackColor() {
-        return UIManager.getColor("Slider.selectedTrackColor");
+        return DarculaPalette.getInstance().sliderSelectedTrack;
     }
 
     @NotNull
     protected Color getDisabledTickColor() {
-        return UIManager.getColor("Slider.disabledTickColor");
+        return DarculaPalette.getInstance().sliderDisabledTick;
     }
 
     @Override
@@ -160,7 +161,7 @@ public class DarculaSliderUI extends BasicSliderUI {
 
     @Override
     public void paintThumb(Graphics g) {
-        final GraphicsConfig config = GraphicsUtil.setupAAPainting(g);
+        final GraphicsConfig config = RenderingProfile.setupAAPainting(g, slider);
         Rectangle knobBounds = thumbRect;
         int w = knobBounds.width;
         int h = knobBounds.height;
@@ -252,7 +253,7 @@ public class DarculaSliderUI extends BasicSliderUI {
 
     @NotNull
     protected Color getThumbBorderColor() {
-        return slider.isEnabled() ? UIManager.getColor("Slider.thumbBorderColor") : UIManager.getColor("Slider.thumbBorderColorDisabled");
+        return slider.isEnabled() ? DarculaPalette.getInstance().sliderThumbBorder : DarculaPalette.getInstance().sliderThumbBorderDisabled;
     }
 
     protected boolean isPlainThumb() {
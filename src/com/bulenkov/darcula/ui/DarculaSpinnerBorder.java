@@ -15,12 +15,14 @@
  */
 package com.bulenkov.darcula.ui;
 
+import com.bulenkov.darcula.DarculaPalette;
 import com.bulenkov.darcula.DarculaUIUtil;
+import com.bulenkov.darcula.util.RenderingProfile;
+import com.bulenkov.darcula.util.SharedInsets;
 import com.bulenkov.iconloader.util.*;
 
 import javax.swing.*;
-import javax.swing.border.Border;
-import javax.swing.plaf.InsetsUIResource;
+import javax.swing.border.AbstractBorder;
 import javax.swing.plaf.UIResource;
 import java.awt.*;
 import java.awt.geom.Area;
@@ -29,7 +31,8 @@ import java.awt.geom.RoundRectangle2D;
 /**
  * @author Konstantin Bulenkov
  */
-public class DarculaSpinnerBorder implements Border, UIResource {
+public class DarculaSpinnerBorder extends AbstractBorder implements UIResource {
+  private static final SharedInsets INSETS = new SharedInsets(5, 7, 5, 7);
 
   @Override
   public void paintBorder(Component c, Graphics g, int x, int y, int width, int height) {
@@ -40,7 +43,7 @@ public class DarculaSpinnerBorder implements Border, UIResource {
     final int width1 = width - 2;
     final int height1 = height - 6;
     final boolean focused = c.isEnabled() && c.isVisible() && editor != null && editor.hasFocus();
-    final GraphicsConfig config = GraphicsUtil.setupAAPainting(g);
+    final GraphicsConfig config = RenderingProfile.setupAAPainting(g, c);
 
     if (c.isOpaque()) {
       g.setColor(UIUtil.getPanelBackground());
@@ -49,7 +52,7 @@ public class DarculaSpinnerBorder implements Border, UIResource {
 
     g.setColor(UIUtil.getTextFieldBackground());
     g.fillRoundRect(x1, y1, width1, height1, 5, 5);
-    g.setColor(UIManager.getColor(spinner.isEnabled() ? "Spinner.darcula.enabledButtonColor" : "Spinner.darcula.disabledButtonColor"));
+    g.setColor(spinner.isEnabled() ? DarculaPalette.getInstance().spinnerButton : DarculaPalette.getInstance().spinnerButtonDisabled);
     if (editor != null) {
       final int off = editor.getBounds().x + editor.getWidth() + ((JSpinner)c).getInsets().left + 1;
       final Area rect = new Area(new RoundRectangle2D.Double(x1, y1, width1, height1, 5, 5));
@@ -58,14 +61,14 @@ public class DarculaSpinnerBorder implements Border, UIResource {
       ((Graphics2D)g).fill(rect);
     }
 
-    if (!c.isEnabled()) {
+    if (!c.isEnabled() && !RenderingProfile.isSimplified(c)) {
       ((Graphics2D)g).setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.4f));
     }
 
     if (focused) {
       DarculaUIUtil.paintFocusRing(g, x1 + 2, y1, width1 - 3, height1);
     } else {
-      g.setColor(new DoubleColor(Gray._149,Gray._100));
+      g.setColor(DarculaPalette.getInstance().spinnerBorder);
       g.drawRoundRect(x1, y1, width1, height1, 5, 5);
     }
     config.restore();
@@ -73,7 +76,12 @@ public class DarculaSpinnerBorder implements Border, UIResource {
 
   @Override
   public Insets getBorderInsets(Component c) {
-    return new InsetsUIResource(5, 7, 5, 7);
+    return INSETS.get();
+  }
+
+  @Override
+  public Insets getBorderInsets(Component c, Insets insets) {
+    return INSETS.fill(insets);
   }
 
   @Override
@@ -15,6 +15,9 @@
  */
 package com.bulenkov.darcula.ui;
 
+import com.bulenkov.darcula.DarculaPalette;
+import com.bulenkov.darcula.util.PaintProfiler;
+import com.bulenkov.darcula.util.RenderingProfile;
 import com.bulenkov.iconloader.util.*;
 
 import javax.swing.*;
@@ -33,6 +36,8 @@ import java.awt.event.FocusEvent;
  * @author Konstantin Bulenkov
  */
 public class DarculaSpinnerUI extends BasicSpinnerUI {
+  private static final Border BUTTON_BORDER = new EmptyBorder(1, 1, 1, 1);
+
   private FocusAdapter myFocusListener = new FocusAdapter() {
     @Override
     public void focusGained(FocusEvent e) {
@@ -70,10 +75,16 @@ public class DarculaSpinnerUI extends BasicSpinnerUI {
 
   @Override
   public void paint(Graphics g, JComponent c) {
-    super.paint(g, c);
-    final Border border = spinner.getBorder();
-    if (border != null) {
-      border.paintBorder(c, g, 0, 0, spinner.getWidth(), spinner.getHeight());
+    final int token = PaintProfiler.start();
+    try {
+      super.paint(g, c);
+      final Border border = spinner.getBorder();
+      if (border != null) {
+        border.paintBorder(c, g, 0, 0, spinner.getWidth(), spinner.getHeight());
+      }
+    }
+    finally {
+      PaintProfiler.stop("DarculaSpinnerUI.paint", c, token);
     }
   }
 
@@ -81,7 +92,7 @@ public class DarculaSpinnerUI extends BasicSpinnerUI {
   protected Component createPreviousButton() {
     JButton button = createArrow(SwingConstants.SOUTH);
     button.setName("Spinner.previousButton");
-    button.setBorder(new EmptyBorder(1, 1, 1, 1));
+    button.setBorder(BUTTON_BORDER);
     installPreviousButtonListeners(button);
     return button;
   }
@@ -90,7 +101,7 @@ public class DarculaSpinnerUI extends BasicSpinnerUI {
   protected Component createNextButton() {
     JButton button = createArrow(SwingConstants.NORTH);
     button.setName("Spinner.nextButton");
-    button.setBorder(new EmptyBorder(1, 1, 1, 1));
+    button.setBorder(BUTTON_BORDER);
     installNextButtonListeners(button);
     return button;
   }
@@ -113,9 +124,7 @@ public class DarculaSpinnerUI extends BasicSpinnerUI {
 
   private JButton createArrow(int direction) {
     final Color shadow = UIUtil.getPanelBackground();
-    final Color enabledColor = new DoubleColor(Gray._255, UIUtil.getLabelForeground());
-    final Color disabledColor = new DoubleColor(Gray._200, UIUtil.getLabelForeground().darker());
-    JButton b = new BasicArrowButton(direction, shadow, shadow, enabledColor, shadow) {
+    JButton b = new BasicArrowButton(direction, shadow, shadow, DarculaPalette.getInstance().arrow, shadow) {
       @Override
       public void paint(Graphics g) {
         int y = direction == NORTH ? getHeight() - 6 : 2;
@@ -129,13 +138,13 @@ public class DarculaSpinnerUI extends BasicSpinnerUI {
 
       @Override
       public void paintTriangle(Graphics g, int x, int y, int size, int direction, boolean isEnabled) {
-        final GraphicsConfig config = GraphicsUtil.setupAAPainting(g);
+        final GraphicsConfig config = RenderingProfile.setupAAPainting(g, DarculaSpinnerUI.this.spinner);
         int mid;
         final int w = 8;
         final int h = 6;
         mid = w  / 2;
 
-        g.setColor(isEnabled ? enabledColor : disabledColor);
+        g.setColor(isEnabled ? DarculaPalette.getInstance().arrow : DarculaPalette.getInstance().arrowDisabled);
 
         g.translate(x, y);
         switch (direction) {
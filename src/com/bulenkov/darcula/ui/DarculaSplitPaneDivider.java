@@ -26,10 +26,8 @@ import javax.swing.JSplitPane;
 import javax.swing.border.Border;
 import javax.swing.plaf.basic.BasicSplitPaneDivider;
 
+import com.bulenkov.darcula.DarculaPalette;
 import com.bulenkov.iconloader.IconLoader;
-import com.bulenkov.iconloader.util.DoubleColor;
-import com.bulenkov.iconloader.util.Gray;
-import com.bulenkov.iconloader.util.UIUtil;
 
 public class DarculaSplitPaneDivider extends BasicSplitPaneDivider {
   private Icon splitGlueV = IconLoader.findIcon("/com/bulenkov/darcula/icons/splitGlueV.png", DarculaSplitPaneDivider.class, true);
@@ -71,7 +69,7 @@ public class DarculaSplitPaneDivider extends BasicSplitPaneDivider {
                             this.getHeight());
 
                     // ... then draw the arrow.
-                    g.setColor(new DoubleColor(Gray._255, UIUtil.getLabelForeground()));
+                    g.setColor(DarculaPalette.getInstance().arrow);
                     if (orientation == JSplitPane.VERTICAL_SPLIT) {
                         blockSize = Math.min(getHeight(), ONE_TOUCH_SIZE);
                         xs[0] = blockSize;
@@ -139,7 +137,7 @@ public class DarculaSplitPaneDivider extends BasicSplitPaneDivider {
                         ys[1] = blockSize;
                         ys[2] = blockSize << 1;
                     }
-                    g.setColor(new DoubleColor(Gray._255, UIUtil.getLabelForeground()));
+                    g.setColor(DarculaPalette.getInstance().arrow);
                     g.fillPolygon(xs, ys, 3);
                 }
             }
@@ -15,6 +15,9 @@
  */
 package com.bulenkov.darcula.ui;
 
+import com.bulenkov.darcula.DarculaPalette;
+import com.bulenkov.darcula.util.PaintProfiler;
+
 import javax.swing.*;
 import javax.swing.plaf.ComponentUI;
 import javax.swing.plaf.UIResource;
@@ -76,20 +79,26 @@ public class DarculaTabbedPaneUI extends BasicTabbedPaneUI {
                                     int tabIndex,
                                     int x, int y, int w, int h,
                                     boolean isSelected ) {
-    Color selectedColor = UIManager.getColor("TabbedPane.selected");
-    g.setColor(!isSelected || selectedColor == null?
-            tabPane.getBackgroundAt(tabIndex) : selectedColor);
-    switch(tabPlacement) {
-      case LEFT:
-      case RIGHT:
-        super.paintTabBackground(g, tabPlacement, tabIndex, x, y, w, h, isSelected);
-        break;
-      case BOTTOM:
-        g.fillRect(x, y, w-1, h-1);
-        break;
-      case TOP:
-      default:
-        g.fillRect(x, y+1, w-1, h-1);
+    final int token = PaintProfiler.start();
+    try {
+      Color selectedColor = DarculaPalette.getInstance().tabbedPaneSelected;
+      g.setColor(!isSelected || selectedColor == null?
+              tabPane.getBackgroundAt(tabIndex) : selectedColor);
+      switch(tabPlacement) {
+        case LEFT:
+        case RIGHT:
+          super.paintTabBackground(g, tabPlacement, tabIndex, x, y, w, h, isSelected);
+          break;
+        case BOTTOM:
+          g.fillRect(x, y, w-1, h-1);
+          break;
+        case TOP:
+        default:
+          g.fillRect(x, y+1, w-1, h-1);
+      }
+    }
+    finally {
+      PaintProfiler.stop("DarculaTabbedPaneUI.paintTabBackground", tabPane, token);
     }
   }
 
@@ -15,13 +15,14 @@
  */
 package com.bulenkov.darcula.ui;
 
+import com.bulenkov.darcula.DarculaPalette;
 import com.bulenkov.darcula.DarculaUIUtil;
+import com.bulenkov.darcula.util.SharedInsets;
 import com.bulenkov.iconloader.util.GraphicsConfig;
 import com.bulenkov.iconloader.util.Gray;
 
 import javax.swing.*;
-import javax.swing.border.Border;
-import javax.swing.plaf.InsetsUIResource;
+import javax.swing.border.AbstractBorder;
 import javax.swing.plaf.UIResource;
 import javax.swing.text.JTextComponent;
 import java.awt.*;
@@ -29,19 +30,29 @@ import java.awt.*;
 /**
  * @author Konstantin Bulenkov
  */
-public class DarculaTextBorder implements Border, UIResource {
+public class DarculaTextBorder extends AbstractBorder implements UIResource {
+  private static final SharedInsets TEXT_FIELD = new SharedInsets(4, 7, 4, 7);
+  private static final SharedInsets PASSWORD_FIELD = new SharedInsets(3, 7, 3, 7);
+  private static final SharedInsets SEARCH_FIELD = new SharedInsets(6, 4 + 16 + 3, 6, 7 + 16);
+  private static final SharedInsets SEARCH_FIELD_WITH_HISTORY = new SharedInsets(6, 7 + 16 + 3, 6, 7 + 16);
+
   @Override
   public Insets getBorderInsets(Component c) {
-    int vOffset = c instanceof JPasswordField ? 3 : 4;
-    if (DarculaTextFieldUI.isSearchField(c)) {
-      vOffset += 2;
-    }
+    return getInsets(c).get();
+  }
+
+  @Override
+  public Insets getBorderInsets(Component c, Insets insets) {
+    return getInsets(c).fill(insets);
+  }
+
+  private static SharedInsets getInsets(Component c) {
     if (DarculaTextFieldUI.isSearchFieldWithHistoryPopup(c)) {
-      return new InsetsUIResource(vOffset, 7 + 16 + 3, vOffset, 7 + 16);
+      return SEARCH_FIELD_WITH_HISTORY;
     } else if (DarculaTextFieldUI.isSearchField(c)) {
-      return new InsetsUIResource(vOffset, 4 + 16 + 3, vOffset, 7 + 16);
+      return SEARCH_FIELD;
     } else {
-      return new InsetsUIResource(vOffset, 7, vOffset, 7);
+      return c instanceof JPasswordField ? PASSWORD_FIELD : TEXT_FIELD;
     }
   }
 
@@ -61,7 +72,7 @@ public class DarculaTextBorder implements Border, UIResource {
       DarculaUIUtil.paintFocusRing(g, 2, 2, width - 4, height - 4);
     } else {
       boolean editable = !(c instanceof JTextComponent) || (((JTextComponent)c).isEditable());
-      g.setColor(c.isEnabled() && editable ? Gray._100 : new Color(0x535353));
+      g.setColor(c.isEnabled() && editable ? Gray._100 : DarculaPalette.INACTIVE_BORDER);
       g.drawRect(1, 1, width - 2, height - 2);
     }
     g.translate(-x, -y);
@@ -15,10 +15,12 @@
  */
 package com.bulenkov.darcula.ui;
 
+import com.bulenkov.darcula.DarculaPalette;
 import com.bulenkov.darcula.DarculaUIUtil;
-import com.bulenkov.iconloader.util.GraphicsConfig;
-import com.bulenkov.iconloader.util.Gray;
+import com.bulenkov.darcula.util.PaintProfiler;
+import com.bulenkov.darcula.util.RenderingProfile;
 import com.bulenkov.iconloader.IconLoader;
+import com.bulenkov.iconloader.util.Gray;
 
 import javax.swing.*;
 import javax.swing.border.Border;
@@ -32,6 +34,10 @@ import java.awt.event.*;
  * @author Konstantin Bulenkov
  */
 public class DarculaTextFieldUI extends BasicTextFieldUI {
+  // Fallbacks for when the icons aren't in the UI defaults; looking them up allocates, so once per JVM
+  private static Icon ourSearchIcon;
+  private static Icon ourClearIcon;
+
 
   private final FocusListener myFocusListener = new FocusAdapter() {
     @Override
@@ -148,62 +154,77 @@ public class DarculaTextFieldUI extends BasicTextFieldUI {
 
   @Override
   protected void paintBackground(Graphics graphics) {
-    Graphics2D g = (Graphics2D)graphics;
     final JTextComponent c = getComponent();
-    final Container parent = c.getParent();
-    final Rectangle r = getDrawingRect();
-    if (c.isOpaque() && parent != null) {
-      g.setColor(parent.getBackground());
-      g.fillRect(0, 0, c.getWidth(), c.getHeight());
-    }
-    final GraphicsConfig config = new GraphicsConfig(g);
-    g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-    g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_NORMALIZE);
-
-    final Border border = c.getBorder();
-    if (isSearchField(c)) {
-      g.setColor(c.getBackground());
-
-      int radius = r.height-1;
-      g.fillRoundRect(r.x, r.y, r.width, r.height-1, radius, radius);
-      g.setColor(c.isEnabled() ? Gray._100 : new Color(0x535353));
-      if (c.getClientProperty("JTextField.Search.noBorderRing") != Boolean.TRUE) {
+    final int token = PaintProfiler.start();
+    try {
+      Graphics2D g = (Graphics2D)graphics;
+      final Container parent = c.getParent();
+      final Rectangle r = getDrawingRect();
+      if (c.isOpaque() && parent != null) {
+        g.setColor(parent.getBackground());
+        g.fillRect(0, 0, c.getWidth(), c.getHeight());
+      }
+      // Not a GraphicsConfig, which copies all hints on every paint
+      final Object oldAntialiasing = g.getRenderingHint(RenderingHints.KEY_ANTIALIASING);
+      final Object oldStrokeControl = g.getRenderingHint(RenderingHints.KEY_STROKE_CONTROL);
+      g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingProfile.getAntialiasing(c));
+      g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_NORMALIZE);
+
+      final Border border = c.getBorder();
+      if (isSearchField(c)) {
+        g.setColor(c.getBackground());
+
+        int radius = r.height-1;
+        g.fillRoundRect(r.x, r.y, r.width, r.height-1, radius, radius);
+        g.setColor(c.isEnabled() ? Gray._100 : DarculaPalette.INACTIVE_BORDER);
+        if (c.getClientProperty("JTextField.Search.noBorderRing") != Boolean.TRUE) {
+          if (c.hasFocus()) {
+              DarculaUIUtil.paintSearchFocusRing(g, r);
+          } else {
+            g.drawRoundRect(r.x, r.y, r.width, r.height-1, radius, radius);
+          }
+        }
+        Point p = getSearchIconCoord();
+        Icon searchIcon = getComponent().getClientProperty("JTextField.Search.FindPopup") instanceof JPopupMenu ? UIManager.getIcon("TextField.darcula.searchWithHistory.icon") : UIManager.getIcon("TextField.darcula.search.icon");
+        if (searchIcon == null) {
+          if (ourSearchIcon == null) {
+            ourSearchIcon = IconLoader.findIcon("/com/bulenkov/darcula/icons/search.png", DarculaTextFieldUI.class, true);
+          }
+          searchIcon = ourSearchIcon;
+        }
+        searchIcon.paintIcon(null, g, p.x, p.y);
+        if (getComponent().hasFocus() && getComponent().getText().length() > 0) {
+          p = getClearIconCoord();
+          Icon clearIcon = UIManager.getIcon("TextField.darcula.clear.icon");
+          if (clearIcon == null) {
+            if (ourClearIcon == null) {
+              ourClearIcon = IconLoader.findIcon("/com/bulenkov/darcula/icons/clear.png", DarculaTextFieldUI.class, true);
+            }
+            clearIcon = ourClearIcon;
+          }
+          clearIcon.paintIcon(null, g, p.x, p.y);
+        }
+      } else if (border instanceof DarculaTextBorder) {
+        if (c.isEnabled() && c.isEditable()) {
+          g.setColor(c.getBackground());
+        }
+        final int width = c.getWidth();
+        final int height = c.getHeight();
+        final Insets i = border.getBorderInsets(c);
         if (c.hasFocus()) {
-            DarculaUIUtil.paintSearchFocusRing(g, r);
+          g.fillRoundRect(i.left - 5, i.top - 2, width - i.right - i.left + 10, height - i.top - i.bottom + 6, 5, 5);
         } else {
-          g.drawRoundRect(r.x, r.y, r.width, r.height-1, radius, radius);
+          g.fillRect(i.left - 5, i.top - 2, width - i.right - i.left + 12, height - i.top - i.bottom + 6);
         }
-      }
-      Point p = getSearchIconCoord();
-      Icon searchIcon = getComponent().getClientProperty("JTextField.Search.FindPopup") instanceof JPopupMenu ? UIManager.getIcon("TextField.darcula.searchWithHistory.icon") : UIManager.getIcon("TextField.darcula.search.icon");
-      if (searchIcon == null) {
-        searchIcon = IconLoader.findIcon("/com/bulenkov/darcula/icons/search.png", DarculaTextFieldUI.class, true);
-      }
-      searchIcon.paintIcon(null, g, p.x, p.y);
-      if (getComponent().hasFocus() && getComponent().getText().length() > 0) {
-        p = getClearIconCoord();
-        Icon clearIcon = UIManager.getIcon("TextField.darcula.clear.icon");
-        if (clearIcon == null) {
-          clearIcon = IconLoader.findIcon("/com/bulenkov/darcula/icons/clear.png", DarculaTextFieldUI.class, true);
-        }
-        clearIcon.paintIcon(null, g, p.x, p.y);
-      }
-    } else if (border instanceof DarculaTextBorder) {
-      if (c.isEnabled() && c.isEditable()) {
-        g.setColor(c.getBackground());
-      }
-      final int width = c.getWidth();
-      final int height = c.getHeight();
-      final Insets i = border.getBorderInsets(c);
-      if (c.hasFocus()) {
-        g.fillRoundRect(i.left - 5, i.top - 2, width - i.right - i.left + 10, height - i.top - i.bottom + 6, 5, 5);
       } else {
-        g.fillRect(i.left - 5, i.top - 2, width - i.right - i.left + 12, height - i.top - i.bottom + 6);
+        super.paintBackground(g);
       }
-    } else {
-      super.paintBackground(g);
+      g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, oldAntialiasing);
+      g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, oldStrokeControl);
+    }
+    finally {
+      PaintProfiler.stop("DarculaTextFieldUI.paintBackground", c, token);
     }
-    config.restore();
   }
 
   @Override
@@ -15,7 +15,9 @@
  */
 package com.bulenkov.darcula.ui;
 
+import com.bulenkov.darcula.DarculaPalette;
 import com.bulenkov.darcula.util.ImageUtil;
+import com.bulenkov.darcula.util.PaintProfiler;
 import com.bulenkov.iconloader.util.ColorUtil;
 import sun.swing.SwingUtilities2;
 
@@ -431,62 +433,67 @@ public class DarculaTitlePane extends JComponent {
   }
 
   public void paintComponent(Graphics g) {
+    final int token = PaintProfiler.start();
+    try {
+      if (getFrame() != null) {
+        setState(getFrame().getExtendedState());
+      }
 
-    if (getFrame() != null) {
-      setState(getFrame().getExtendedState());
-    }
-
-    JRootPane rootPane = getRootPane();
-    Window window = getWindow();
-    boolean leftToRight = (window == null) ?
-                          rootPane.getComponentOrientation().isLeftToRight() :
-                          window.getComponentOrientation().isLeftToRight();
-    int width = getWidth();
-    int height = getHeight();
+      JRootPane rootPane = getRootPane();
+      Window window = getWindow();
+      boolean leftToRight = (window == null) ?
+                            rootPane.getComponentOrientation().isLeftToRight() :
+                            window.getComponentOrientation().isLeftToRight();
+      int width = getWidth();
+      int height = getHeight();
 
-    Color background = activeBackground;
-    Color foreground = activeForeground;
+      Color background = activeBackground;
+      Color foreground = activeForeground;
 
-    g.setColor(background);
-    g.fillRect(0, 0, width, height);
+      g.setColor(background);
+      g.fillRect(0, 0, width, height);
 
-    int xOffset = leftToRight ? 5 : width - 5;
+      int xOffset = leftToRight ? 5 : width - 5;
 
-    if (getWindowDecorationStyle() == JRootPane.FRAME) {
-      xOffset += leftToRight ? IMAGE_WIDTH + 5 : -IMAGE_WIDTH - 5;
-    }
+      if (getWindowDecorationStyle() == JRootPane.FRAME) {
+        xOffset += leftToRight ? IMAGE_WIDTH + 5 : -IMAGE_WIDTH - 5;
+      }
 
-    String theTitle = getTitle();
-    if (theTitle != null) {
-      FontMetrics fm = rootPane.getFontMetrics(g.getFont());
+      String theTitle = getTitle();
+      if (theTitle != null) {
+        FontMetrics fm = rootPane.getFontMetrics(g.getFont());
 
-      g.setColor(foreground);
+        g.setColor(foreground);
 
-      int yOffset = ((height - fm.getHeight()) / 2) + fm.getAscent();
+        int yOffset = ((height - fm.getHeight()) / 2) + fm.getAscent();
 
-      Rectangle rect = new Rectangle(0, 0, 0, 0);
-      if (iconifyButton != null && iconifyButton.getParent() != null) {
-        rect = iconifyButton.getBounds();
-      }
-      int titleW;
+        Rectangle rect = new Rectangle(0, 0, 0, 0);
+        if (iconifyButton != null && iconifyButton.getParent() != null) {
+          rect = iconifyButton.getBounds();
+        }
+        int titleW;
 
-      if (leftToRight) {
-        if (rect.x == 0) {
-          rect.x = window.getWidth() - window.getInsets().right - 2;
+        if (leftToRight) {
+          if (rect.x == 0) {
+            rect.x = window.getWidth() - window.getInsets().right - 2;
+          }
+          titleW = rect.x - xOffset - 4;
+          theTitle = SwingUtilities2.clipStringIfNecessary(
+            rootPane, fm, theTitle, titleW);
         }
-        titleW = rect.x - xOffset - 4;
-        theTitle = SwingUtilities2.clipStringIfNecessary(
-          rootPane, fm, theTitle, titleW);
-      }
-      else {
-        titleW = xOffset - rect.x - rect.width - 4;
-        theTitle = SwingUtilities2.clipStringIfNecessary(
-          rootPane, fm, theTitle, titleW);
-        xOffset -= SwingUtilities.computeStringWidth(fm, theTitle);
+        else {
+          titleW = xOffset - rect.x - rect.width - 4;
+          theTitle = SwingUtilities2.clipStringIfNecessary(
+            rootPane, fm, theTitle, titleW);
+          xOffset -= SwingUtilities.computeStringWidth(fm, theTitle);
+        }
+        int titleLength = SwingUtilities2.stringWidth(rootPane, fm, theTitle);
+        SwingUtilities2.drawString(rootPane, g, theTitle, xOffset, yOffset);
+        xOffset += leftToRight ? titleLength + 5 : -5;
       }
-      int titleLength = SwingUtilities2.stringWidth(rootPane, fm, theTitle);
-      SwingUtilities2.drawString(rootPane, g, theTitle, xOffset, yOffset);
-      xOffset += leftToRight ? titleLength + 5 : -5;
+    }
+    finally {
+      PaintProfiler.stop("DarculaTitlePane.paintComponent", this, token);
     }
   }
 
@@ -734,8 +741,7 @@ public class DarculaTitlePane extends JComponent {
   private class DarculaRootPaneButtonUI extends BasicButtonUI {
 
       private Color getMainButtonColor(AbstractButton b) {
-          return UIManager.getColor(b == closeButton ? "DarculaTitlePane.hovered.closeButtonColor" :
-                  "DarculaTitlePane.hovered.buttonColor");
+          return b == closeButton ? DarculaPalette.getInstance().titlePaneHoveredCloseButton : DarculaPalette.getInstance().titlePaneHoveredButton;
       }
 
       @Override
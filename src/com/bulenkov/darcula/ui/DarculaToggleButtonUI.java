@@ -22,9 +22,11 @@ import javax.swing.plaf.ComponentUI;
  * @author Konstantin Bulenkov
  */
 public class DarculaToggleButtonUI extends DarculaButtonUI {
+  private static final DarculaToggleButtonUI ourInstance = new DarculaToggleButtonUI();
+
   @SuppressWarnings("MethodOverridesStaticMethodOfSuperclass")
   public static ComponentUI createUI(JComponent c) {
-    return new DarculaToggleButtonUI();
+    return ourInstance;
   }
 
 }
@@ -1,5 +1,8 @@
 package com.bulenkov.darcula.ui;
 
+import com.bulenkov.darcula.DarculaPalette;
+import com.bulenkov.darcula.util.SharedInsets;
+
 import javax.swing.*;
 import javax.swing.border.AbstractBorder;
 import java.awt.*;
@@ -11,6 +14,7 @@ import java.awt.*;
  * @version 1.0
  */
 public class DarculaToolBarRolloverBorder extends AbstractBorder {
+    private static final SharedInsets INSETS = new SharedInsets(3, 3, 3, 3);
 
     @Override
     public void paintBorder(Component c, Graphics g, int x, int y, int width, int height) {
@@ -18,15 +22,19 @@ public class DarculaToolBarRolloverBorder extends AbstractBorder {
         AbstractButton b = (AbstractButton)c;
 
         if (b.getModel().isRollover() || b.getModel().isArmed()) {
-            g.setColor(UIManager.getColor("ToolBar.rolloverBorder.color"));
+            g.setColor(DarculaPalette.getInstance().toolBarRolloverBorder);
             g.drawRoundRect(x, y, width - 1, height - 1, 2, 2);
         }
     }
 
+    @Override
+    public Insets getBorderInsets(Component c) {
+        return INSETS.get();
+    }
+
     @Override
     public Insets getBorderInsets(Component c, Insets insets) {
-        insets.top = insets.bottom = insets.left = insets.right = 3;
-        return insets;
+        return INSETS.fill(insets);
     }
 
     @Override
@@ -1,5 +1,7 @@
 package com.bulenkov.darcula.ui;
 
+import com.bulenkov.darcula.util.SharedInsets;
+
 import javax.swing.plaf.BorderUIResource;
 import java.awt.*;
 
@@ -9,8 +11,14 @@ import java.awt.*;
  * @author Robert Futrell
  */
 public class DarculaToolTipBorder extends BorderUIResource.LineBorderUIResource {
+    private static final SharedInsets INSETS = new SharedInsets(1, 1, 1, 1);
 
     public DarculaToolTipBorder() {
         super(new Color(0x777777));//UIManager.getColor("ToolTip.borderColor"));
     }
+
+    @Override
+    public Insets getBorderInsets(Component c) {
+        return INSETS.get();
+    }
 }
@@ -17,20 +17,26 @@ package com.bulenkov.darcula.ui;
 
 
 import com.bulenkov.darcula.DarculaUIUtil;
+import com.bulenkov.darcula.util.PaintProfiler;
 import com.bulenkov.iconloader.util.SystemInfo;
 import com.bulenkov.iconloader.util.UIUtil;
 
 import javax.swing.*;
 import javax.swing.border.Border;
+import javax.swing.event.*;
 import javax.swing.plaf.ComponentUI;
 import javax.swing.plaf.UIResource;
 import javax.swing.plaf.basic.BasicTreeUI;
+import javax.swing.tree.TreeModel;
 import javax.swing.tree.TreePath;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.Arrays;
 
 /**
  * @author Konstantin Bulenkov
@@ -53,6 +59,9 @@ public class DarculaTreeUI extends BasicTreeUI {
   private boolean myOldRepaintAllRowValue;
   private boolean invertLineColor;
   private boolean myForceDontPaintLines = false;
+  // Expand controls by expanded, selected and focused state; rebuilt when the UI is installed
+  private Icon[] myNodeIcons = new Icon[8];
+  private final SelectedRows mySelectedRows = new SelectedRows();
 
 
   @Override
@@ -85,16 +94,7 @@ public class DarculaTreeUI extends BasicTreeUI {
     private boolean isSelected(MouseEvent e) {
       final JTree tree = (JTree)e.getSource();
       final int selected = tree.getClosestRowForLocation(e.getX(), e.getY());
-      final int[] rows = tree.getSelectionRows();
-      if (rows != null) {
-        for (int row : rows) {
-          if (row == selected) {
-            return true;
-          }
-        }
-      }
-
-      return false;
+      return mySelectedRows.contains(selected);
     }
 
     private void handle(MouseEvent e) {
@@ -134,6 +134,7 @@ public class DarculaTreeUI extends BasicTreeUI {
 
     tree.setShowsRootHandles(true);
     tree.addMouseListener(mySelectionListener);
+    mySelectedRows.install(tree);
   }
 
   @Override
@@ -142,6 +143,7 @@ public class DarculaTreeUI extends BasicTreeUI {
 
     UIManager.put("Tree.repaintWholeRow", myOldRepaintAllRowValue);
     c.removeMouseListener(mySelectionListener);
+    mySelectedRows.uninstall((JTree)c);
   }
 
   @Override
@@ -303,87 +305,106 @@ public class DarculaTreeUI extends BasicTreeUI {
                           final boolean isExpanded,
                           final boolean hasBeenExpanded,
                           final boolean isLeaf) {
-    final int containerWidth = tree.getParent() instanceof JViewport ? tree.getParent().getWidth() : tree.getWidth();
-    final int xOffset = tree.getParent() instanceof JViewport ? ((JViewport)tree.getParent()).getViewPosition().x : 0;
+    final int token = PaintProfiler.start();
+    try {
+      final int containerWidth = tree.getParent() instanceof JViewport ? tree.getParent().getWidth() : tree.getWidth();
+      final int xOffset = tree.getParent() instanceof JViewport ? ((JViewport)tree.getParent()).getViewPosition().x : 0;
 
-    if (path != null) {
-      boolean selected = tree.isPathSelected(path);
-      Graphics2D rowGraphics = (Graphics2D)g.create();
-      rowGraphics.setClip(clipBounds);
+      if (path != null) {
+        boolean selected = tree.isPathSelected(path);
+        // g is already clipped to clipBounds, so paint into it directly and only restore the color
+        final Color oldColor = g.getColor();
 
-      final Object sourceList = tree.getClientProperty(SOURCE_LIST_CLIENT_PROPERTY);
-      Color background = tree.getBackground();
+        final Object sourceList = tree.getClientProperty(SOURCE_LIST_CLIENT_PROPERTY);
+        Color background = tree.getBackground();
 
-      if ((row % 2) == 0 && Boolean.TRUE.equals(tree.getClientProperty(STRIPED_CLIENT_PROPERTY))) {
-        background = UIUtil.getDecoratedRowColor();
-      }
+        if ((row % 2) == 0 && Boolean.TRUE.equals(tree.getClientProperty(STRIPED_CLIENT_PROPERTY))) {
+          background = UIUtil.getDecoratedRowColor();
+        }
 
-      if (sourceList != null && (Boolean)sourceList) {
-        if (selected) {
-          if (tree.hasFocus()) {
-            LIST_FOCUSED_SELECTION_BACKGROUND_PAINTER.paintBorder(tree, rowGraphics, xOffset, bounds.y, containerWidth, bounds.height);
+        if (sourceList != null && (Boolean)sourceList) {
+          if (selected) {
+            if (tree.hasFocus()) {
+              LIST_FOCUSED_SELECTION_BACKGROUND_PAINTER.paintBorder(tree, g, xOffset, bounds.y, containerWidth, bounds.height);
+            }
+            else {
+              LIST_SELECTION_BACKGROUND_PAINTER.paintBorder(tree, g, xOffset, bounds.y, containerWidth, bounds.height);
+            }
           }
           else {
-            LIST_SELECTION_BACKGROUND_PAINTER.paintBorder(tree, rowGraphics, xOffset, bounds.y, containerWidth, bounds.height);
+            g.setColor(background);
+            g.fillRect(xOffset, bounds.y, containerWidth, bounds.height);
           }
         }
         else {
-          rowGraphics.setColor(background);
-          rowGraphics.fillRect(xOffset, bounds.y, containerWidth, bounds.height);
+          if (selected) {
+            Color bg = UIUtil.getTreeSelectionBackground(tree.hasFocus() || Boolean.TRUE.equals(tree.getClientProperty(TREE_TABLE_TREE_KEY)));
+
+            g.setColor(bg);
+            g.fillRect(xOffset, bounds.y, containerWidth, bounds.height);
+          }
         }
-      }
-      else {
-        if (selected) {
-          Color bg = UIUtil.getTreeSelectionBackground(tree.hasFocus() || Boolean.TRUE.equals(tree.getClientProperty(TREE_TABLE_TREE_KEY)));
 
-          rowGraphics.setColor(bg);
-          rowGraphics.fillRect(xOffset, bounds.y, containerWidth, bounds.height);
+        if (shouldPaintExpandControl(path, row, isExpanded, hasBeenExpanded, isLeaf)) {
+          paintExpandControl(g, bounds, insets, bounds, path, row, isExpanded, hasBeenExpanded, isLeaf);
         }
-      }
 
-      if (shouldPaintExpandControl(path, row, isExpanded, hasBeenExpanded, isLeaf)) {
-        paintExpandControl(rowGraphics, bounds, insets, bounds, path, row, isExpanded, hasBeenExpanded, isLeaf);
+        super.paintRow(g, clipBounds, insets, bounds, path, row, isExpanded, hasBeenExpanded, isLeaf);
+        g.setColor(oldColor);
+      }
+      else {
+        super.paintRow(g, clipBounds, insets, bounds, path, row, isExpanded, hasBeenExpanded, isLeaf);
       }
-
-      super.paintRow(rowGraphics, clipBounds, insets, bounds, path, row, isExpanded, hasBeenExpanded, isLeaf);
-      rowGraphics.dispose();
     }
-    else {
-      super.paintRow(g, clipBounds, insets, bounds, path, row, isExpanded, hasBeenExpanded, isLeaf);
+    finally {
+      PaintProfiler.stop("DarculaTreeUI.paintRow", tree, token);
     }
   }
 
   @Override
   public void paint(Graphics g, JComponent c) {
-    final int containerWidth = tree.getParent() instanceof JViewport ? tree.getParent().getWidth() : tree.getWidth();
-    final int xOffset = tree.getParent() instanceof JViewport ? ((JViewport) tree.getParent()).getViewPosition().x : 0;
-    final Rectangle bounds = g.getClipBounds();
+    final int token = PaintProfiler.start();
+    try {
+      final int containerWidth = tree.getParent() instanceof JViewport ? tree.getParent().getWidth() : tree.getWidth();
+      final int xOffset = tree.getParent() instanceof JViewport ? ((JViewport) tree.getParent()).getViewPosition().x : 0;
+      final Rectangle bounds = g.getClipBounds();
 
-    // draw background for the given clip bounds
-    final Object sourceList = tree.getClientProperty(SOURCE_LIST_CLIENT_PROPERTY);
-    if (sourceList != null && (Boolean) sourceList) {
-      Graphics2D backgroundGraphics = (Graphics2D) g.create();
-      backgroundGraphics.setClip(xOffset, bounds.y, containerWidth, bounds.height);
-      LIST_BACKGROUND_PAINTER.paintBorder(tree, backgroundGraphics, xOffset, bounds.y, containerWidth, bounds.height);
-      backgroundGraphics.dispose();
-    }
+      // draw background for the given clip bounds
+      final Object sourceList = tree.getClientProperty(SOURCE_LIST_CLIENT_PROPERTY);
+      if (sourceList != null && (Boolean) sourceList) {
+        Graphics2D backgroundGraphics = (Graphics2D) g.create();
+        backgroundGraphics.setClip(xOffset, bounds.y, containerWidth, bounds.height);
+        LIST_BACKGROUND_PAINTER.paintBorder(tree, backgroundGraphics, xOffset, bounds.y, containerWidth, bounds.height);
+        backgroundGraphics.dispose();
+      }
 
-    super.paint(g, c);
+      super.paint(g, c);
+    }
+    finally {
+      PaintProfiler.stop("DarculaTreeUI.paint", c, token);
+    }
   }
 
   protected void paintSelectedRows(Graphics g, JTree tr) {
     final Rectangle rect = tr.getVisibleRect();
     final int firstVisibleRow = tr.getClosestRowForLocation(rect.x, rect.y);
     final int lastVisibleRow = tr.getClosestRowForLocation(rect.x, rect.y + rect.height);
-
-    for (int row = firstVisibleRow; row <= lastVisibleRow; row++) {
-      if (tr.getSelectionModel().isRowSelected(row)) {
-        final Rectangle bounds = tr.getRowBounds(row);
-        Color color = UIUtil.getTreeSelectionBackground(tr.hasFocus());
-        if (color != null) {
-          g.setColor(color);
-          g.fillRect(0, bounds.y, tr.getWidth(), bounds.height);
-        }
+    if (firstVisibleRow < 0) return;
+
+    final Color color = UIUtil.getTreeSelectionBackground(tr.hasFocus());
+    if (color == null) return;
+    g.setColor(color);
+
+    // One fill per run of selected rows instead of one per row
+    final SelectedRows selection = tr == tree ? mySelectedRows : new SelectedRows(tr);
+    for (int i = selection.indexOfRangeEndingAtOrAfter(firstVisibleRow); i < selection.getRangeCount(); i++) {
+      final int first = Math.max(selection.getRangeStart(i), firstVisibleRow);
+      final int last = Math.min(selection.getRangeEnd(i), lastVisibleRow);
+      if (first > lastVisibleRow) break;
+      final Rectangle top = tr.getRowBounds(first);
+      final Rectangle bottom = last == first ? top : tr.getRowBounds(last);
+      if (top != null && bottom != null) {
+        g.fillRect(0, top.y, tr.getWidth(), bottom.y + bottom.height - top.y);
       }
     }
   }
@@ -402,6 +423,25 @@ public class DarculaTreeUI extends BasicTreeUI {
     };
   }
 
+  @Override
+  protected void installDefaults() {
+    super.installDefaults();
+    myNodeIcons = new Icon[8];
+    // Hit testing uses these, so give them the same size as the painted icons
+    setExpandedIcon(getNodeIcon(true, false, false));
+    setCollapsedIcon(getNodeIcon(false, false, false));
+  }
+
+  private Icon getNodeIcon(boolean expanded, boolean selected, boolean focused) {
+    final int index = (expanded ? 1 : 0) | (selected ? 2 : 0) | (focused ? 4 : 0);
+    Icon icon = myNodeIcons[index];
+    if (icon == null) {
+      icon = DarculaUIUtil.getTreeNodeIcon(expanded, selected, focused);
+      myNodeIcons[index] = icon;
+    }
+    return icon;
+  }
+
   @Override
   protected void paintExpandControl(Graphics g,
                                     Rectangle clipBounds,
@@ -412,13 +452,169 @@ public class DarculaTreeUI extends BasicTreeUI {
                                     boolean isExpanded,
                                     boolean hasBeenExpanded,
                                     boolean isLeaf) {
-    boolean isPathSelected = tree.getSelectionModel().isPathSelected(path);
-    if (!isLeaf(row)) {
-      setExpandedIcon(DarculaUIUtil.getTreeNodeIcon(true, isPathSelected, tree.hasFocus()));
-      setCollapsedIcon(DarculaUIUtil.getTreeNodeIcon(false, isPathSelected, tree.hasFocus()));
+    if (!isLeaf && (!hasBeenExpanded || treeModel.getChildCount(path.getLastPathComponent()) > 0)) {
+      final boolean isPathSelected = tree.getSelectionModel().isPathSelected(path);
+      final Icon icon = getNodeIcon(isExpanded, isPathSelected, tree.hasFocus());
+      final int middleXOfKnob = tree.getComponentOrientation().isLeftToRight()
+                                ? bounds.x - getRightChildIndent() + 1
+                                : bounds.x + bounds.width + getRightChildIndent() - 1;
+      drawCentered(tree, g, icon, middleXOfKnob, bounds.y + (bounds.height / 2));
     }
-
-    super.paintExpandControl(g, clipBounds, insets, bounds, path, row, isExpanded, hasBeenExpanded, isLeaf);
   }
 
+  /**
+   * The selected rows of a tree as sorted, disjoint ranges, so that testing a
+   * row or finding the selected rows in a visible range is a binary search.
+   * The ranges are rebuilt lazily from the selection model after anything that
+   * may change the selection or the row numbering.
+   */
+  private static final class SelectedRows implements TreeSelectionListener, TreeExpansionListener, TreeModelListener,
+                                                     PropertyChangeListener {
+    private JTree myTree;
+    private TreeModel myModel;
+    private int[] myStarts = new int[16];
+    private int[] myEnds = new int[16];
+    private int myCount;
+    private boolean myValid;
+
+    SelectedRows() {
+    }
+
+    SelectedRows(JTree tree) {
+      myTree = tree;
+    }
+
+    void install(JTree tree) {
+      myTree = tree;
+      tree.addTreeSelectionListener(this);
+      tree.addTreeExpansionListener(this);
+      tree.addPropertyChangeListener(this);
+      setModel(tree.getModel());
+    }
+
+    void uninstall(JTree tree) {
+      tree.removeTreeSelectionListener(this);
+      tree.removeTreeExpansionListener(this);
+      tree.removePropertyChangeListener(this);
+      setModel(null);
+      myTree = null;
+      myValid = false;
+    }
+
+    private void setModel(TreeModel model) {
+      if (myModel != null) {
+        myModel.removeTreeModelListener(this);
+      }
+      myModel = model;
+      if (model != null) {
+        model.addTreeModelListener(this);
+      }
+      myValid = false;
+    }
+
+    boolean contains(int row) {
+      final int i = indexOfRangeEndingAtOrAfter(row);
+      return i < myCount && myStarts[i] <= row;
+    }
+
+    int getRangeCount() {
+      validate();
+      return myCount;
+    }
+
+    int getRangeStart(int index) {
+      return myStarts[index];
+    }
+
+    int getRangeEnd(int index) {
+      return myEnds[index];
+    }
+
+    /**
+     * Returns the index of the first range whose last row is {@code row} or
+     * greater, or the range count if there is none.
+     */
+    int indexOfRangeEndingAtOrAfter(int row) {
+      validate();
+      int low = 0;
+      int high = myCount;
+      while (low < high) {
+        final int mid = (low + high) >>> 1;
+        if (myEnds[mid] < row) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+
+    private void validate() {
+      if (myValid) return;
+      myValid = true;
+      myCount = 0;
+      final int[] rows = myTree == null ? null : myTree.getSelectionRows();
+      if (rows == null || rows.length == 0) return;
+
+      Arrays.sort(rows);
+      for (int row : rows) {
+        if (row < 0) continue;
+        if (myCount > 0 && row <= myEnds[myCount - 1] + 1) {
+          myEnds[myCount - 1] = Math.max(myEnds[myCount - 1], row);
+        } else {
+          if (myCount == myStarts.length) {
+            myStarts = Arrays.copyOf(myStarts, myCount * 2);
+            myEnds = Arrays.copyOf(myEnds, myCount * 2);
+          }
+          myStarts[myCount] = row;
+          myEnds[myCount] = row;
+          myCount++;
+        }
+      }
+    }
+
+    @Override
+    public void valueChanged(TreeSelectionEvent e) {
+      myValid = false;
+    }
+
+    @Override
+    public void treeExpanded(TreeExpansionEvent event) {
+      myValid = false;
+    }
+
+    @Override
+    public void treeCollapsed(TreeExpansionEvent event) {
+      myValid = false;
+    }
+
+    @Override
+    public void treeNodesChanged(TreeModelEvent e) {
+    }
+
+    @Override
+    public void treeNodesInserted(TreeModelEvent e) {
+      myValid = false;
+    }
+
+    @Override
+    public void treeNodesRemoved(TreeModelEvent e) {
+      myValid = false;
+    }
+
+    @Override
+    public void treeStructureChanged(TreeModelEvent e) {
+      myValid = false;
+    }
+
+    @Override
+    public void propertyChange(PropertyChangeEvent evt) {
+      final String name = evt.getPropertyName();
+      if (JTree.TREE_MODEL_PROPERTY.equals(name)) {
+        setModel(myTree.getModel());
+      } else if (JTree.ROOT_VISIBLE_PROPERTY.equals(name) || JTree.SELECTION_MODEL_PROPERTY.equals(name)) {
+        myValid = false;
+      }
+    }
+  }
 }
@@ -17,36 +17,31 @@
 package com.bulenkov.darcula.util;
 
 import javax.swing.*;
-import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
+ * Frame-based animation driven by the shared {@link FrameClock}.
+ *
  * @author Konstantin Bulenkov
  */
 public abstract class Animator {
-  private final static ScheduledExecutorService scheduler = createScheduler();
-
-  private static ScheduledExecutorService createScheduler() {
-    ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
-      public Thread newThread(final Runnable r) {
-        final Thread thread = new Thread(r, "Darcula Animations");
-        thread.setDaemon(true);
-        thread.setPriority(Thread.NORM_PRIORITY);
-        return thread;
-      }
-    });
-    executor.setContinueExistingPeriodicTasksAfterShutdownPolicy(false);
-    executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
-    return executor;
-
-  }
-
   private final int myTotalFrames;
   private final int myCycleDuration;
   private final boolean myForward;
   private final boolean myRepeatable;
 
-  private ScheduledFuture<?> myTicker;
+  private final FrameClock.Listener myTicker = new FrameClock.Listener() {
+    @Override
+    public void onFrame(long now) {
+      onTick(now);
+    }
+  };
+  private final Runnable myCycleEnd = new Runnable() {
+    @Override
+    public void run() {
+      paintCycleEnd();
+    }
+  };
+  private boolean myRunning;
 
   private int myCurrentFrame;
   private long myStartTime;
@@ -75,15 +70,15 @@ public abstract class Animator {
     reset();
   }
 
-  private void onTick() {
+  private void onTick(long now) {
     if (isDisposed()) return;
 
     if (myStartTime == -1) {
-      myStartTime = System.currentTimeMillis();
-      myStopTime = myStartTime + myCycleDuration * (myTotalFrames - myCurrentFrame) / myTotalFrames;
+      myStartTime = now;
+      myStopTime = myStartTime + 1000000L * myCycleDuration * (myTotalFrames - myCurrentFrame) / myTotalFrames;
     }
 
-    final double passedTime = System.currentTimeMillis() - myStartTime;
+    final double passedTime = now - myStartTime;
     final double totalTime = myStopTime - myStartTime;
 
     final int newFrame = (int)(passedTime * myTotalFrames / totalTime);
@@ -110,17 +105,14 @@ public abstract class Animator {
   private void animationDone() {
     stopTicker();
 
-    SwingUtilities.invokeLater(new Runnable() {
-      public void run() {
-        paintCycleEnd();
-      }
-    });
+    // Posted, so a callback never re-enters resume() or runs off the EDT
+    SwingUtilities.invokeLater(myCycleEnd);
   }
 
   private void stopTicker() {
-    if (myTicker != null) {
-      myTicker.cancel(false);
-      myTicker = null;
+    if (myRunning) {
+      FrameClock.removeListener(myTicker);
+      myRunning = false;
     }
   }
 
@@ -139,23 +131,9 @@ public abstract class Animator {
       paint();
       animationDone();
     }
-    else if (myTicker == null) {
-      myTicker = scheduler.scheduleWithFixedDelay(new Runnable() {
-        AtomicBoolean scheduled = new AtomicBoolean(false);
-
-        @Override
-        public void run() {
-          if (scheduled.compareAndSet(false, true) && !isDisposed()) {
-            SwingUtilities.invokeLater(new Runnable() {
-              @Override
-              public void run() {
-                scheduled.set(false);
-                onTick();
-              }
-            });
-          }
-        }
-      }, 0, myCycleDuration * 1000 / myTotalFrames, TimeUnit.MICROSECONDS);
+    else if (!myRunning) {
+      myRunning = true;
+      FrameClock.addListener(myTicker);
     }
   }
 
@@ -167,7 +145,7 @@ public abstract class Animator {
   }
 
   public boolean isRunning() {
-    return myTicker != null;
+    return myRunning;
   }
 
   public void reset() {
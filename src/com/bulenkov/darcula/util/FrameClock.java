@@ -0,0 +1,126 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bulenkov.darcula.util;
+
+import javax.swing.*;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A single animation pulse shared by everything Darcula animates.  While at
+ * least one listener is registered, a background thread ticks at a fixed rate
+ * (60 Hz unless {@code darcula.animation.fps} says otherwise) and each tick
+ * posts at most one runnable to the EDT, which notifies all listeners in one
+ * batch.  The clock stops itself when the last listener is removed.
+ */
+public final class FrameClock {
+  public interface Listener {
+    /**
+     * Called on the EDT once per frame.
+     *
+     * @param now The frame time, as returned by {@link System#nanoTime()}.
+     */
+    void onFrame(long now);
+  }
+
+  private static final long FRAME_NANOS = (long)(1000000000L / getFramesPerSecond());
+
+  private static final ScheduledExecutorService ourScheduler = createScheduler();
+  private static final List<Listener> ourListeners = new CopyOnWriteArrayList<Listener>();
+  private static final AtomicBoolean ourFramePending = new AtomicBoolean();
+  private static ScheduledFuture<?> ourPulse;
+
+  private static final Runnable ourPulseTask = new Runnable() {
+    @Override
+    public void run() {
+      if (ourFramePending.compareAndSet(false, true)) {
+        SwingUtilities.invokeLater(ourFrameTask);
+      }
+    }
+  };
+
+  private static final Runnable ourFrameTask = new Runnable() {
+    @Override
+    public void run() {
+      ourFramePending.set(false);
+      final long now = System.nanoTime();
+      for (Listener listener : ourListeners) {
+        listener.onFrame(now);
+      }
+    }
+  };
+
+  private FrameClock() {
+  }
+
+  private static float getFramesPerSecond() {
+    final float fps = Registry.getFloat("darcula.animation.fps");
+    return fps > 0 ? fps : 60;
+  }
+
+  private static ScheduledExecutorService createScheduler() {
+    ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+      public Thread newThread(final Runnable r) {
+        final Thread thread = new Thread(r, "Darcula Animations");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.NORM_PRIORITY);
+        return thread;
+      }
+    });
+    executor.setContinueExistingPeriodicTasksAfterShutdownPolicy(false);
+    executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    executor.setRemoveOnCancelPolicy(true);
+    return executor;
+  }
+
+  /**
+   * Starts delivering frames to {@code listener}.  Adding a listener twice has
+   * no effect.
+   */
+  public static synchronized void addListener(Listener listener) {
+    if (!ourListeners.contains(listener)) {
+      ourListeners.add(listener);
+    }
+    if (ourPulse == null) {
+      ourPulse = ourScheduler.scheduleAtFixedRate(ourPulseTask, 0, FRAME_NANOS, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  /**
+   * Stops delivering frames to {@code listener}; stops the clock if nothing is
+   * left to animate.
+   */
+  public static synchronized void removeListener(Listener listener) {
+    ourListeners.remove(listener);
+    if (ourListeners.isEmpty() && ourPulse != null) {
+      ourPulse.cancel(false);
+      ourPulse = null;
+    }
+  }
+
+  public static synchronized boolean isRunning() {
+    return ourPulse != null;
+  }
+
+  /**
+   * Returns the frame period in nanoseconds.
+   */
+  public static long getFrameNanos() {
+    return FRAME_NANOS;
+  }
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bulenkov.darcula.util;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
+import java.util.Arrays;
+
+/**
+ * A pre-rendered image split into nine cells.  The corners are copied as-is,
+ * the edges and the center are stretched to fill the requested bounds.  A
+ * middle slice may be empty, in which case the image can only be painted at
+ * its own size in that direction.
+ * <p>
+ * All coordinates passed to {@link #paint(Graphics2D, int, int, int, int)}
+ * are in device pixels; use {@link #getDeviceScale(AffineTransform)} to find
+ * out whether a graphics context can be blitted to without resampling.
+ */
+public final class NinePatch {
+  // Longest replicated edge strip; longer edges are drawn in several pieces
+  private static final int MAX_STRIP = 256;
+
+  private static final ThreadLocal<AffineTransform> ourDeviceTransform = new ThreadLocal<AffineTransform>() {
+    @Override
+    protected AffineTransform initialValue() {
+      return new AffineTransform();
+    }
+  };
+
+  private final BufferedImage myImage;
+  private final int myLeft;
+  private final int myTop;
+  private final int myRight;
+  private final int myBottom;
+
+  // The cells are blitted unscaled, which unlike a scaling drawImage doesn't
+  // allocate: corners as they are, edges whose middle slice is uniform along
+  // the edge as power-of-two strips of that slice, and a uniform opaque
+  // center as a fill.  Anything else falls back to a scaling blit.
+  private final BufferedImage[] myCorners;
+  private final BufferedImage[][] myEdgeStrips;
+  private final Color myCenterColor;
+  private final boolean myCenterEmpty;
+
+  public NinePatch(BufferedImage image, int left, int top, int right, int bottom) {
+    myImage = image;
+    myLeft = left;
+    myTop = top;
+    myRight = right;
+    myBottom = bottom;
+
+    final int iw = image.getWidth();
+    final int ih = image.getHeight();
+    myCorners = new BufferedImage[]{
+      subimage(0, 0, left, top), subimage(iw - right, 0, right, top),
+      subimage(0, ih - bottom, left, bottom), subimage(iw - right, ih - bottom, right, bottom)};
+    myEdgeStrips = new BufferedImage[][]{
+      createStrips(left, 0, iw - left - right, top, true), createStrips(left, ih - bottom, iw - left - right, bottom, true),
+      createStrips(0, top, left, ih - top - bottom, false), createStrips(iw - right, top, right, ih - top - bottom, false)};
+
+    final long center = getUniformPixel(left, top, iw - left - right, ih - top - bottom);
+    myCenterEmpty = center == 0;
+    myCenterColor = center >= 0 && (center >>> 24) == 0xFF ? new Color((int)center) : null;
+  }
+
+  public BufferedImage getImage() {
+    return myImage;
+  }
+
+  public int getWidth() {
+    return myImage.getWidth();
+  }
+
+  public int getHeight() {
+    return myImage.getHeight();
+  }
+
+  /**
+   * Paints this patch at user space bounds of {@code g}, whose transform
+   * {@code at} has the integral device scale {@code scale}.
+   */
+  public void paint(Graphics2D g, AffineTransform at, int scale, int x, int y, int width, int height) {
+    if (scale == 1) {
+      paint(g, x, y, width, height);
+    } else {
+      final AffineTransform device = ourDeviceTransform.get();
+      device.setToTranslation(at.getTranslateX(), at.getTranslateY());
+      g.setTransform(device);
+      paint(g, x * scale, y * scale, width * scale, height * scale);
+      g.setTransform(at);
+    }
+  }
+
+  /**
+   * Paints this patch into {@code g}, which must be untransformed (i.e. in
+   * device space).
+   */
+  public void paint(Graphics2D g, int x, int y, int width, int height) {
+    final int iw = myImage.getWidth();
+    final int ih = myImage.getHeight();
+    final Object oldInterpolation = g.getRenderingHint(RenderingHints.KEY_INTERPOLATION);
+    g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+
+    final int dx1 = x + myLeft;
+    final int dx2 = x + width - myRight;
+    final int dy1 = y + myTop;
+    final int dy2 = y + height - myBottom;
+    final int sx2 = iw - myRight;
+    final int sy2 = ih - myBottom;
+
+    drawCell(g, myCorners[0], x, y);
+    drawCell(g, myCorners[1], dx2, y);
+    drawCell(g, myCorners[2], x, dy2);
+    drawCell(g, myCorners[3], dx2, dy2);
+
+    drawEdge(g, myEdgeStrips[0], dx1, y, dx2, dy1, myLeft, 0, sx2, myTop, true);
+    drawEdge(g, myEdgeStrips[1], dx1, dy2, dx2, y + height, myLeft, sy2, sx2, ih, true);
+    drawEdge(g, myEdgeStrips[2], x, dy1, dx1, dy2, 0, myTop, myLeft, sy2, false);
+    drawEdge(g, myEdgeStrips[3], dx2, dy1, x + width, dy2, sx2, myTop, iw, sy2, false);
+
+    if (dx1 < dx2 && dy1 < dy2 && !myCenterEmpty) {
+      if (myCenterColor != null) {
+        final Paint paint = g.getPaint();
+        g.setColor(myCenterColor);
+        g.fillRect(dx1, dy1, dx2 - dx1, dy2 - dy1);
+        g.setPaint(paint);
+      } else {
+        blit(g, dx1, dx2, dy1, dy2, myLeft, sx2, myTop, sy2);
+      }
+    }
+
+    if (oldInterpolation != null) {
+      g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, oldInterpolation);
+    }
+  }
+
+  private static void drawCell(Graphics2D g, BufferedImage cell, int x, int y) {
+    if (cell != null) {
+      g.drawImage(cell, x, y, null);
+    }
+  }
+
+  private void drawEdge(Graphics2D g, BufferedImage[] strips, int dx1, int dy1, int dx2, int dy2,
+                        int sx1, int sy1, int sx2, int sy2, boolean horizontal) {
+    if (dx1 >= dx2 || dy1 >= dy2) return;
+    if (strips == null) {
+      blit(g, dx1, dx2, dy1, dy2, sx1, sx2, sy1, sy2);
+      return;
+    }
+    int position = horizontal ? dx1 : dy1;
+    int length = horizontal ? dx2 - dx1 : dy2 - dy1;
+    final int longest = strips.length - 1;
+    while (length > 0) {
+      final int k = length >= 1 << longest ? longest : 31 - Integer.numberOfLeadingZeros(length);
+      g.drawImage(strips[k], horizontal ? position : dx1, horizontal ? dy1 : position, null);
+      position += 1 << k;
+      length -= 1 << k;
+    }
+  }
+
+  private void blit(Graphics2D g, int dx1, int dx2, int dy1, int dy2, int sx1, int sx2, int sy1, int sy2) {
+    if (dx1 < dx2 && sx1 < sx2) {
+      g.drawImage(myImage, dx1, dy1, dx2, dy2, sx1, sy1, sx2, sy2, null);
+    }
+  }
+
+  private BufferedImage subimage(int x, int y, int width, int height) {
+    return width > 0 && height > 0 ? myImage.getSubimage(x, y, width, height) : null;
+  }
+
+  /**
+   * Returns power-of-two long copies of a middle slice that is the same all
+   * along its edge, or {@code null} if it isn't.
+   */
+  private BufferedImage[] createStrips(int x, int y, int width, int height, boolean horizontal) {
+    if (width <= 0 || height <= 0) {
+      return null;
+    }
+    final int along = horizontal ? width : height;
+    final int across = horizontal ? height : width;
+    final WritableRaster raster = myImage.getRaster();
+    final int[] line = new int[across];
+    final int[] other = new int[across];
+    getLine(raster, x, y, 0, across, horizontal, line);
+    for (int i = 1; i < along; i++) {
+      getLine(raster, x, y, i, across, horizontal, other);
+      if (!Arrays.equals(line, other)) {
+        return null;
+      }
+    }
+
+    final BufferedImage strip = horizontal ? createImage(MAX_STRIP, across) : createImage(across, MAX_STRIP);
+    final WritableRaster stripRaster = strip.getRaster();
+    for (int i = 0; i < MAX_STRIP; i++) {
+      if (horizontal) {
+        stripRaster.setDataElements(i, 0, 1, across, line);
+      } else {
+        stripRaster.setDataElements(0, i, across, 1, line);
+      }
+    }
+    final BufferedImage[] strips = new BufferedImage[Integer.numberOfTrailingZeros(MAX_STRIP) + 1];
+    for (int k = 0; k < strips.length; k++) {
+      strips[k] = horizontal ? strip.getSubimage(0, 0, 1 << k, across) : strip.getSubimage(0, 0, across, 1 << k);
+    }
+    return strips;
+  }
+
+  private static void getLine(WritableRaster raster, int x, int y, int i, int across, boolean horizontal, int[] line) {
+    if (horizontal) {
+      raster.getDataElements(x + i, y, 1, across, line);
+    } else {
+      raster.getDataElements(x, y + i, across, 1, line);
+    }
+  }
+
+  /**
+   * Returns the raw pixel if the area is a single color, or {@code -1}.
+   */
+  private long getUniformPixel(int x, int y, int width, int height) {
+    if (width <= 0 || height <= 0) {
+      return -1;
+    }
+    final int[] pixels = new int[width * height];
+    myImage.getRaster().getDataElements(x, y, width, height, pixels);
+    for (int pixel : pixels) {
+      if (pixel != pixels[0]) {
+        return -1;
+      }
+    }
+    return pixels[0] & 0xFFFFFFFFL;
+  }
+
+  /**
+   * Creates a translucent image suitable for rendering a patch into.
+   */
+  public static BufferedImage createImage(int width, int height) {
+    return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+  }
+
+  /**
+   * Returns the integral device scale of {@code at}, or {@code 0} if the
+   * transform rotates, shears, scales non-uniformly, by a fractional factor or
+   * translates by a fractional amount.  Cached images are only blitted in the
+   * first case; everything else falls back to direct painting.
+   */
+  public static int getDeviceScale(AffineTransform at) {
+    final int type = at.getType();
+    if ((type & ~(AffineTransform.TYPE_TRANSLATION | AffineTransform.TYPE_UNIFORM_SCALE)) != 0) {
+      return 0;
+    }
+    final double scale = at.getScaleX();
+    final int intScale = (int)Math.round(scale);
+    if (intScale < 1 || intScale != scale || !isIntegral(at.getTranslateX()) || !isIntegral(at.getTranslateY())) {
+      return 0;
+    }
+    return intScale;
+  }
+
+  private static boolean isIntegral(double d) {
+    return d == Math.rint(d);
+  }
+}
@@ -0,0 +1,286 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bulenkov.darcula.util;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Opt-in paint time instrumentation.  With {@code darcula.paintProfiler} set
+ * when the class loads, every instrumented paint site records its paint
+ * count, total and maximum time and the bytes it allocated, per site and per
+ * component class; see {@link PaintProfilerMBean} for the JMX view.  Nested
+ * sites are included in the numbers of the sites around them.
+ * <p>
+ * Instrumented code brackets its work with
+ * <pre>
+ *   final int token = PaintProfiler.start();
+ *   try {
+ *     ...
+ *   }
+ *   finally {
+ *     PaintProfiler.stop("DarculaTreeUI.paintRow", tree, token);
+ *   }
+ * </pre>
+ * When disabled both calls return immediately.  A {@code stop} skipped by an
+ * exception is harmless: the next enclosing {@code stop} unwinds past it.
+ */
+public final class PaintProfiler implements PaintProfilerMBean {
+  public static final boolean ENABLED = Registry.is("darcula.paintProfiler");
+
+  private static final PaintProfiler ourInstance = new PaintProfiler();
+  private static final ThreadMXBean ourThreads = ENABLED ? ManagementFactory.getThreadMXBean() : null;
+  private static final ConcurrentMap<String, Site> ourSites = new ConcurrentHashMap<String, Site>();
+
+  private static final ThreadLocal<Frames> ourFrames = new ThreadLocal<Frames>() {
+    @Override
+    protected Frames initialValue() {
+      return new Frames();
+    }
+  };
+
+  static {
+    if (ENABLED) {
+      try {
+        ManagementFactory.getPlatformMBeanServer()
+          .registerMBean(ourInstance, new ObjectName("com.bulenkov.darcula:type=PaintProfiler"));
+      }
+      catch (Exception e) {
+        Logger.getLogger(PaintProfiler.class.getName()).log(Level.WARNING, "Cannot register the paint profiler MBean", e);
+      }
+    }
+  }
+
+  private PaintProfiler() {
+  }
+
+  public static PaintProfiler getInstance() {
+    return ourInstance;
+  }
+
+  /**
+   * Starts timing a paint site on the current thread and returns the token to
+   * pass to {@link #stop(String, Object, int)}.
+   */
+  public static int start() {
+    if (!ENABLED) {
+      return 0;
+    }
+    final Frames frames = ourFrames.get();
+    final int depth = frames.myDepth++;
+    if (depth == frames.myStartNanos.length) {
+      frames.myStartNanos = Arrays.copyOf(frames.myStartNanos, depth * 2);
+      frames.myStartBytes = Arrays.copyOf(frames.myStartBytes, depth * 2);
+    }
+    frames.myStartBytes[depth] = getThreadAllocatedBytes();
+    frames.myStartNanos[depth] = System.nanoTime();
+    return depth;
+  }
+
+  /**
+   * Records the paint of {@code site} started with {@code token}, for the
+   * class of {@code component}.
+   */
+  public static void stop(String site, Object component, int token) {
+    if (!ENABLED) {
+      return;
+    }
+    final long nanos = System.nanoTime();
+    final long bytes = getThreadAllocatedBytes();
+    final Frames frames = ourFrames.get();
+    if (token >= frames.myDepth) {
+      return;
+    }
+    frames.myDepth = token;
+    final long elapsed = nanos - frames.myStartNanos[token];
+    final long allocated = bytes < 0 ? -1 : bytes - frames.myStartBytes[token];
+
+    Site stats = ourSites.get(site);
+    if (stats == null) {
+      final Site newStats = new Site();
+      stats = ourSites.putIfAbsent(site, newStats);
+      if (stats == null) {
+        stats = newStats;
+      }
+    }
+    stats.record(elapsed, allocated);
+    if (component != null) {
+      stats.getComponentStats(component.getClass()).record(elapsed, allocated);
+    }
+  }
+
+  private static long getThreadAllocatedBytes() {
+    if (ourThreads instanceof com.sun.management.ThreadMXBean) {
+      return ((com.sun.management.ThreadMXBean)ourThreads).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+    return -1;
+  }
+
+  @Override
+  public boolean isEnabled() {
+    return ENABLED;
+  }
+
+  @Override
+  public String[] getSiteNames() {
+    final List<String> names = new ArrayList<String>();
+    for (String site : new TreeSet<String>(ourSites.keySet())) {
+      names.add(site);
+      for (Class<?> aClass : ourSites.get(site).myComponents.keySet()) {
+        names.add(site + "[" + aClass.getName() + "]");
+      }
+    }
+    return names.toArray(new String[names.size()]);
+  }
+
+  @Override
+  public long getPaintCount(String site) {
+    final Stats stats = findStats(site);
+    return stats == null ? 0 : stats.getCount();
+  }
+
+  @Override
+  public long getTotalNanos(String site) {
+    final Stats stats = findStats(site);
+    return stats == null ? 0 : stats.getTotalNanos();
+  }
+
+  @Override
+  public long getMaxNanos(String site) {
+    final Stats stats = findStats(site);
+    return stats == null ? 0 : stats.getMaxNanos();
+  }
+
+  @Override
+  public long getAllocatedBytes(String site) {
+    final Stats stats = findStats(site);
+    return stats == null ? 0 : stats.getAllocatedBytes();
+  }
+
+  private static Stats findStats(String name) {
+    final int bracket = name.indexOf('[');
+    final Site site = ourSites.get(bracket < 0 ? name : name.substring(0, bracket));
+    if (site == null || bracket < 0) {
+      return site;
+    }
+    final String className = name.substring(bracket + 1, name.length() - 1);
+    for (Map.Entry<Class<?>, Stats> entry : site.myComponents.entrySet()) {
+      if (entry.getKey().getName().equals(className)) {
+        return entry.getValue();
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public String getReport() {
+    final String[] names = getSiteNames();
+    final Stats[] stats = new Stats[names.length];
+    final Integer[] order = new Integer[names.length];
+    for (int i = 0; i < names.length; i++) {
+      stats[i] = findStats(names[i]);
+      order[i] = i;
+    }
+    Arrays.sort(order, new Comparator<Integer>() {
+      @Override
+      public int compare(Integer a, Integer b) {
+        final long ta = stats[a] == null ? 0 : stats[a].getTotalNanos();
+        final long tb = stats[b] == null ? 0 : stats[b].getTotalNanos();
+        return ta < tb ? 1 : ta > tb ? -1 : 0;
+      }
+    });
+
+    final StringBuilder report = new StringBuilder();
+    for (int i : order) {
+      final Stats s = stats[i];
+      if (s == null || s.getCount() == 0) {
+        continue;
+      }
+      report.append(names[i]).append(": ").append(s.getCount()).append(" paints, ")
+        .append(s.getTotalNanos() / 1000).append(" us total, ")
+        .append(s.getMaxNanos() / 1000).append(" us max");
+      if (s.getAllocatedBytes() >= 0) {
+        report.append(", ").append(s.getAllocatedBytes() / s.getCount()).append(" B/paint");
+      }
+      report.append('\n');
+    }
+    return report.toString();
+  }
+
+  @Override
+  public void reset() {
+    ourSites.clear();
+  }
+
+  private static final class Frames {
+    private long[] myStartNanos = new long[16];
+    private long[] myStartBytes = new long[16];
+    private int myDepth;
+  }
+
+  private static class Stats {
+    private long myCount;
+    private long myTotalNanos;
+    private long myMaxNanos;
+    private long myAllocatedBytes;
+
+    synchronized void record(long nanos, long bytes) {
+      myCount++;
+      myTotalNanos += nanos;
+      myMaxNanos = Math.max(myMaxNanos, nanos);
+      myAllocatedBytes = bytes < 0 || myAllocatedBytes < 0 ? -1 : myAllocatedBytes + bytes;
+    }
+
+    synchronized long getCount() {
+      return myCount;
+    }
+
+    synchronized long getTotalNanos() {
+      return myTotalNanos;
+    }
+
+    synchronized long getMaxNanos() {
+      return myMaxNanos;
+    }
+
+    synchronized long getAllocatedBytes() {
+      return myAllocatedBytes;
+    }
+  }
+
+  private static final class Site extends Stats {
+    private final ConcurrentMap<Class<?>, Stats> myComponents = new ConcurrentHashMap<Class<?>, Stats>();
+
+    Stats getComponentStats(Class<?> aClass) {
+      Stats stats = myComponents.get(aClass);
+      if (stats == null) {
+        final Stats newStats = new Stats();
+        stats = myComponents.putIfAbsent(aClass, newStats);
+        if (stats == null) {
+          stats = newStats;
+        }
+      }
+      return stats;
+    }
+  }
+}
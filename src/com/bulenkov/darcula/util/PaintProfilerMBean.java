@@ -0,0 +1,52 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bulenkov.darcula.util;
+
+/**
+ * The JMX view of {@link PaintProfiler}, registered as
+ * {@code com.bulenkov.darcula:type=PaintProfiler}.  Statistics are kept per
+ * paint site, e.g. {@code DarculaTreeUI.paintRow}, and per site and component
+ * class, e.g. {@code DarculaTreeUI.paintRow[javax.swing.JTree]}.
+ */
+public interface PaintProfilerMBean {
+  boolean isEnabled();
+
+  /**
+   * Returns the sites painted so far, each followed by its per component
+   * class entries.
+   */
+  String[] getSiteNames();
+
+  long getPaintCount(String site);
+
+  long getTotalNanos(String site);
+
+  long getMaxNanos(String site);
+
+  /**
+   * Returns the bytes allocated while painting {@code site}, or {@code -1} if
+   * the JVM doesn't report allocations per thread.
+   */
+  long getAllocatedBytes(String site);
+
+  /**
+   * Returns one line per site and component class, most total time first.
+   */
+  String getReport();
+
+  void reset();
+}
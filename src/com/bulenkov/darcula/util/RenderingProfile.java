@@ -0,0 +1,149 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bulenkov.darcula.util;
+
+import com.bulenkov.iconloader.util.GraphicsConfig;
+import com.bulenkov.iconloader.util.GraphicsUtil;
+import sun.swing.SwingUtilities2;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * Selects between the regular rendering and a low-bandwidth one for remote
+ * sessions, where every antialiased edge, alpha composite and gradient adds
+ * to the pixels shipped over the wire.  In low-bandwidth mode the delegates
+ * paint aliased solid shapes, flatten gradients, draw a single opaque focus
+ * ring and don't animate.
+ * <p>
+ * The mode is on with {@code darcula.lowBandwidth} set, and is detected for
+ * remote X11 displays unless {@code darcula.lowBandwidth.noAutoDetect} is set.
+ * VNC and Xpra sessions look like local displays, so they need the property.
+ * <p>
+ * While a window is live-resized the delegates in it paint
+ * {@link #isSimplified(Component) simplified}, aliased and without gradients,
+ * but keep their caches and animations.  Cached images are always rendered
+ * at full quality, so they look the same once the resize is over.
+ */
+public final class RenderingProfile {
+  private static volatile boolean ourLowBandwidth = Registry.is("darcula.lowBandwidth")
+                                                    || !Registry.is("darcula.lowBandwidth.noAutoDetect") && isRemoteDisplay();
+  private static final String LIVE_RESIZE = "darcula.liveResize";
+
+  // Number of windows being live-resized, so that no lookup is needed when there is none; only changed on the EDT
+  private static volatile int ourLiveResizes;
+
+  private RenderingProfile() {
+  }
+
+  public static boolean isLowBandwidth() {
+    return ourLowBandwidth;
+  }
+
+  /**
+   * Switches the mode at runtime and repaints all windows.
+   */
+  public static void setLowBandwidth(boolean lowBandwidth) {
+    if (ourLowBandwidth != lowBandwidth) {
+      ourLowBandwidth = lowBandwidth;
+      for (Window window : Window.getWindows()) {
+        window.repaint();
+      }
+    }
+  }
+
+  /**
+   * Marks the start of a live resize of the window of {@code rootPane}; must
+   * be paired with {@link #endLiveResize(JRootPane)}.
+   */
+  public static void beginLiveResize(JRootPane rootPane) {
+    if (rootPane.getClientProperty(LIVE_RESIZE) == null) {
+      rootPane.putClientProperty(LIVE_RESIZE, Boolean.TRUE);
+      ourLiveResizes++;
+    }
+  }
+
+  public static void endLiveResize(JRootPane rootPane) {
+    if (rootPane.getClientProperty(LIVE_RESIZE) != null) {
+      rootPane.putClientProperty(LIVE_RESIZE, null);
+      ourLiveResizes--;
+    }
+  }
+
+  /**
+   * Whether {@code c} is in a window that is being live-resized.
+   */
+  public static boolean isLiveResizing(Component c) {
+    if (ourLiveResizes == 0) {
+      return false;
+    }
+    // Not SwingUtilities.getRootPane, which stops at the root pane of an internal frame
+    for (Component p = c; p != null; p = p.getParent()) {
+      if (p instanceof JRootPane && ((JRootPane)p).getClientProperty(LIVE_RESIZE) != null) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Whether shapes of {@code c} are painted aliased and gradients flat, i.e.
+   * in low-bandwidth mode or while its window is live-resized.  {@code c} may
+   * be {@code null} for painting that isn't tied to a component, such as
+   * cached images; then only the low-bandwidth mode counts.
+   */
+  public static boolean isSimplified(Component c) {
+    return ourLowBandwidth || isLiveResizing(c);
+  }
+
+  /**
+   * The value of {@code RenderingHints.KEY_ANTIALIASING} for shapes of {@code c}.
+   */
+  public static Object getAntialiasing(Component c) {
+    return isSimplified(c) ? RenderingHints.VALUE_ANTIALIAS_OFF : RenderingHints.VALUE_ANTIALIAS_ON;
+  }
+
+  /**
+   * Same as {@link GraphicsUtil#setupAAPainting(Graphics)}, but leaves shapes
+   * aliased when {@code c} is {@link #isSimplified(Component) simplified}.
+   */
+  public static GraphicsConfig setupAAPainting(Graphics g, Component c) {
+    if (!isSimplified(c)) {
+      return GraphicsUtil.setupAAPainting(g);
+    }
+    final GraphicsConfig config = new GraphicsConfig(g);
+    ((Graphics2D)g).setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+    return config;
+  }
+
+  private static boolean isRemoteDisplay() {
+    if (GraphicsEnvironment.isHeadless()) {
+      return false;
+    }
+    try {
+      if (!SwingUtilities2.isLocalDisplay()) {
+        return true;
+      }
+    }
+    catch (Throwable ignore) {
+    }
+    // X11 forwarding over ssh tunnels the display through a local port, so it looks local
+    final String display = System.getenv("DISPLAY");
+    return display != null && !display.startsWith(":") && !display.startsWith("unix:")
+           && (System.getenv("SSH_CONNECTION") != null || System.getenv("SSH_CLIENT") != null);
+  }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bulenkov.darcula.util;
+
+import java.awt.*;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The bounds of all screens, queried once instead of on every window move.
+ * The cache is dropped when the JDK reports a display change; where that
+ * notification isn't accessible, e.g. on Java 9 and later without
+ * {@code --add-exports java.desktop/sun.java2d=ALL-UNNAMED}, the screens are
+ * queried again at most once a second.  The failed registration is
+ * logged once, at {@code FINE} level as the fallback covers it.
+ * <p>
+ * A lookup first checks the screen that answered the previous one, as a
+ * dragged window mostly stays on its screen, so it takes constant time
+ * without calling into the toolkit.
+ */
+public final class ScreenTopology {
+  private static final long REFRESH_NANOS = 1000 * 1000000L;
+
+  private static volatile Screens ourScreens;
+  private static volatile int ourLastHit;
+
+  // Held strongly, as the JDK only keeps weak references to display change listeners
+  private static final Object ourDisplayChangeListener = createDisplayChangeListener();
+  private static final boolean ourNotified = addDisplayChangeListener(ourDisplayChangeListener);
+
+  private ScreenTopology() {
+  }
+
+  public static int getScreenCount() {
+    return getScreens().myConfigurations.length;
+  }
+
+  /**
+   * Returns the default configuration of the screen containing the given
+   * point, or {@code null} if it isn't on any screen.
+   */
+  public static GraphicsConfiguration getConfigurationAt(int x, int y) {
+    final Screens screens = getScreens();
+    final int count = screens.myConfigurations.length;
+    final int last = ourLastHit;
+    if (last < count && screens.contains(last, x, y)) {
+      return screens.myConfigurations[last];
+    }
+    for (int i = 0; i < count; i++) {
+      if (screens.contains(i, x, y)) {
+        ourLastHit = i;
+        return screens.myConfigurations[i];
+      }
+    }
+    return null;
+  }
+
+  public static void invalidate() {
+    ourScreens = null;
+  }
+
+  private static Screens getScreens() {
+    Screens screens = ourScreens;
+    if (screens == null || !ourNotified && System.nanoTime() - screens.myTime > REFRESH_NANOS) {
+      screens = new Screens();
+      ourScreens = screens;
+    }
+    return screens;
+  }
+
+  private static Object createDisplayChangeListener() {
+    try {
+      final Class<?> listenerClass = Class.forName("sun.awt.DisplayChangedListener");
+      return Proxy.newProxyInstance(listenerClass.getClassLoader(), new Class<?>[]{listenerClass}, new InvocationHandler() {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+          final String name = method.getName();
+          if ("hashCode".equals(name)) {
+            return System.identityHashCode(proxy);
+          }
+          if ("equals".equals(name)) {
+            return proxy == args[0];
+          }
+          if ("toString".equals(name)) {
+            return "ScreenTopology display change listener";
+          }
+          if ("displayChanged".equals(name)) {
+            invalidate();
+          }
+          return null;
+        }
+      });
+    }
+    catch (Exception e) {
+      logRegistrationFailure(e);
+      return null;
+    }
+  }
+
+  private static boolean addDisplayChangeListener(Object listener) {
+    if (listener == null || GraphicsEnvironment.isHeadless()) {
+      return false;
+    }
+    try {
+      final GraphicsEnvironment ge = GraphicsEnvironment.getLocalGraphicsEnvironment();
+      final Class<?> listenerClass = listener.getClass().getInterfaces()[0];
+      ge.getClass().getMethod("addDisplayChangedListener", listenerClass).invoke(ge, listener);
+      return true;
+    }
+    catch (Exception e) {
+      logRegistrationFailure(e);
+      return false;
+    }
+  }
+
+  private static void logRegistrationFailure(Exception e) {
+    Logger.getLogger(ScreenTopology.class.getName())
+      .log(Level.FINE, "Display changes aren't reported, the screens are queried again once a second", e);
+  }
+
+  private static final class Screens {
+    private final long myTime = System.nanoTime();
+    private final GraphicsConfiguration[] myConfigurations;
+    // x, y, width and height of each screen
+    private final int[] myBounds;
+
+    Screens() {
+      GraphicsDevice[] devices = new GraphicsDevice[0];
+      if (!GraphicsEnvironment.isHeadless()) {
+        devices = GraphicsEnvironment.getLocalGraphicsEnvironment().getScreenDevices();
+      }
+      myConfigurations = new GraphicsConfiguration[devices.length];
+      myBounds = new int[4 * devices.length];
+      for (int i = 0; i < devices.length; i++) {
+        myConfigurations[i] = devices[i].getDefaultConfiguration();
+        final Rectangle bounds = myConfigurations[i].getBounds();
+        myBounds[4 * i] = bounds.x;
+        myBounds[4 * i + 1] = bounds.y;
+        myBounds[4 * i + 2] = bounds.width;
+        myBounds[4 * i + 3] = bounds.height;
+      }
+    }
+
+    boolean contains(int screen, int x, int y) {
+      final int i = 4 * screen;
+      return x >= myBounds[i] && x - myBounds[i] < myBounds[i + 2]
+             && y >= myBounds[i + 1] && y - myBounds[i + 1] < myBounds[i + 3];
+    }
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2000-2019 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bulenkov.darcula.util;
+
+import javax.swing.plaf.InsetsUIResource;
+import java.awt.*;
+
+/**
+ * Fixed border insets that are handed out without allocating.  {@link #get()}
+ * returns one shared {@code InsetsUIResource} that callers must treat as
+ * read-only; since {@code Insets} can't be made immutable, its values are
+ * restored on every call, so a caller that modifies it anyway can't affect
+ * later layouts.  {@link #fill(Insets)} backs
+ * {@code AbstractBorder.getBorderInsets(Component, Insets)}.
+ */
+public final class SharedInsets {
+  private final int myTop;
+  private final int myLeft;
+  private final int myBottom;
+  private final int myRight;
+  private final Insets myInsets;
+
+  public SharedInsets(int top, int left, int bottom, int right) {
+    myTop = top;
+    myLeft = left;
+    myBottom = bottom;
+    myRight = right;
+    myInsets = new InsetsUIResource(top, left, bottom, right);
+  }
+
+  public Insets get() {
+    myInsets.set(myTop, myLeft, myBottom, myRight);
+    return myInsets;
+  }
+
+  public Insets fill(Insets insets) {
+    insets.set(myTop, myLeft, myBottom, myRight);
+    return insets;
+  }
+}